@@ -8,10 +8,11 @@ import com.embabel.agent.domain.io.UserInput;
 import com.embabel.agent.prompt.persona.Persona;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.ai.agent.config.ConfigProps;
+import io.ai.agent.config.PromptTemplate;
 import io.ai.agent.entity.Airline;
-import io.ai.agent.entity.Flight;
-import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.entity.WeatherData;
 import io.ai.agent.record.AirlinePrediction;
+import io.ai.agent.record.AirlinePrediction.ReviewPath;
 import io.ai.agent.record.Critique;
 import io.ai.agent.record.FlightAuxStats;
 import io.ai.agent.record.FlightDocs;
@@ -19,22 +20,38 @@ import io.ai.agent.record.FlightSchedule;
 import io.ai.agent.record.PredictionDetails;
 import io.ai.agent.record.PredictionRequest;
 import io.ai.agent.record.PredictionResponse;
+import io.ai.agent.record.RouteFlight;
 import io.ai.agent.record.ScoredDocument;
 import io.ai.agent.record.ScoredDocument.Relevance;
+import io.ai.agent.record.ScoredDocument.Relevances;
 import io.ai.agent.record.WeatherAnalysis;
 import io.ai.agent.repo.FlightRepository;
 import io.ai.agent.service.CrewService;
+import io.ai.agent.service.EmbeddingReranker;
+import io.ai.agent.service.LlmResponseCache;
+import io.ai.agent.service.PredictionStreams;
 import io.ai.agent.service.StatsPredictionService;
 import io.ai.agent.service.VectorStoreService;
 import io.ai.agent.service.WeatherService;
+import io.ai.agent.service.WeatherSeverityClassifier;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.StringJoiner;
-import java.util.stream.Collector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
@@ -75,14 +92,19 @@ public class DelayPredictCoPilot {
 
 	private static final String BEST_LLM = "best";
 	private static final String LITE_LLM = "lite";
-	private static final String FLIGHT_PATTERN = "Flights departing on %s between 00:00 and 23:59 hours with delays considering weather, crew, and aircraft factors";
-	private static final String ROUTE_PATTERN = "Route %s to %s: with delays and cancellations";
+	private static final String AUTO_LLM = "auto";
+	private static final String AIRLINE_PATTERN = "%s airline performance: on-time percentage, average delay and common delay reasons";
 	private final FlightRepository flightRepository;
 	private final VectorStoreService vectorStoreService;
+	private final EmbeddingReranker embeddingReranker;
 	private final StatsPredictionService statsPredictionService;
 	private final WeatherService weatherService;
+	private final WeatherSeverityClassifier weatherSeverityClassifier;
 	private final CrewService crewService;
+	private final LlmResponseCache llmResponseCache;
+	private final PredictionStreams predictionStreams;
 	private final ConfigProps props;
+	private final ExecutorService ioExecutor;
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	@Action
@@ -96,12 +118,14 @@ public class DelayPredictCoPilot {
 
 	@Action(description = "Get supporting documents related to route and flight performance")
 	public FlightDocs buildContext(PredictionRequest request) {
-		return FlightDocs.builder().documents(Stream.of(vectorStoreService.searchSimilarDocuments(
-						String.format(FLIGHT_PATTERN,
-								request.travelDate().getDayOfWeek())
-				), vectorStoreService.searchSimilarDocuments(
-						String.format(ROUTE_PATTERN, request.origin(), request.destination()),
-						new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("route"), new Filter.Value(request.origin() + "-" + request.destination()))))
+		// Both searches run concurrently; one that fails or times out contributes no documents
+		var dayPatterns = fetchAsync("Day pattern search", () -> vectorStoreService.searchSimilarDocuments(
+				VectorStoreService.flightPatternQuery(request.travelDate().getDayOfWeek())), List.<Document>of());
+		var routePatterns = fetchAsync("Route pattern search", () -> vectorStoreService.searchSimilarDocuments(
+				VectorStoreService.routePatternQuery(request.origin(), request.destination()),
+				new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("route"), new Filter.Value(request.origin() + "-" + request.destination()))),
+				List.<Document>of());
+		return FlightDocs.builder().documents(Stream.of(dayPatterns.join(), routePatterns.join())
 				.flatMap(List::stream).toList()).build();
 
 	}
@@ -112,19 +136,20 @@ public class DelayPredictCoPilot {
 			return docs;
 		}
 
-		List<ScoredDocument> scoredDocuments = docs.documents().parallelStream().map(doc -> {
-			var prompt = String.format(props.getPrompt().getRankedKPrompt(),
-					request.origin(), request.destination(), request.travelDate(), doc.getText());
+		if (props.getVector().getReranker() == ConfigProps.Reranker.EMBEDDING) {
+			return FlightDocs.builder().documents(rerankByEmbedding(docs.documents(), request)).build();
+		}
 
-			try {
-				var relevance = ctx.ai().withAutoLlm().createObjectIfPossible(prompt, Relevance.class);
-				return new ScoredDocument(doc, relevance != null ? relevance.score() : 0);
-			}
-			catch (Exception e) {
-				log.warn("Failed to get relevance score for document: {}", e.getMessage());
-				return new ScoredDocument(doc, 0);
-			}
-		}).toList();
+		List<ScoredDocument> scoredDocuments = props.getVector().getReranker() == ConfigProps.Reranker.LLM_BATCH
+				? scoreDocuments(docs.documents(), request, ctx)
+				: null;
+		if (scoredDocuments == null) {
+			scoredDocuments = docs.documents().stream()
+					.map(doc -> CompletableFuture.supplyAsync(() -> scoreDocument(doc, request, ctx), ioExecutor))
+					.toList().stream()
+					.map(CompletableFuture::join)
+					.toList();
+		}
 
 		var sortedDocuments = new ArrayList<>(scoredDocuments);
 		sortedDocuments.sort((a, b) -> Integer.compare(b.score(), a.score()));
@@ -135,14 +160,90 @@ public class DelayPredictCoPilot {
 				.collect(Collectors.toList())).build();
 	}
 
+	private List<Document> rerankByEmbedding(List<Document> documents, PredictionRequest request) {
+		var queryViews = new ArrayList<float[]>();
+		queryViews.add(vectorStoreService.embedQuery(VectorStoreService.routePatternQuery(request.origin(), request.destination())));
+		queryViews.add(vectorStoreService.embedQuery(VectorStoreService.flightPatternQuery(request.travelDate().getDayOfWeek())));
+		if (request.preferredAirline() != null && !request.preferredAirline().isBlank()) {
+			queryViews.add(vectorStoreService.embedQuery(String.format(AIRLINE_PATTERN, request.preferredAirline())));
+		}
+		var embeddings = vectorStoreService.findEmbeddings(documents.stream().map(Document::getId).toList());
+		return embeddingReranker.rerank(documents, embeddings, queryViews, props.getVector().getRankedK());
+	}
+
+	/**
+	 * Scores all candidates with a single LLM call. Returns null when the response cannot be used, so the caller
+	 * can fall back to per-document scoring.
+	 */
+	private List<ScoredDocument> scoreDocuments(List<Document> documents, PredictionRequest request, OperationContext ctx) {
+		var candidates = new StringJoiner("\n\n");
+		for (int i = 0; i < documents.size(); i++) {
+			candidates.add("[%d] %s".formatted(i, documents.get(i).getText()));
+		}
+		var prompt = String.format(props.getPrompt().getRankedKBatchPrompt(),
+				request.origin(), request.destination(), request.travelDate(), candidates);
+
+		try {
+			var relevances = llmResponseCache.getOrCreate(AUTO_LLM, null, prompt, Relevances.class,
+					() -> ctx.ai().withAutoLlm().createObjectIfPossible(prompt, Relevances.class));
+			if (relevances == null || relevances.scores() == null || relevances.scores().isEmpty()) {
+				log.warn("Batch relevance scoring returned no scores, falling back to per-document scoring");
+				return null;
+			}
+			int[] scores = new int[documents.size()];
+			for (var ranking : relevances.scores()) {
+				if (ranking.index() >= 0 && ranking.index() < scores.length) {
+					scores[ranking.index()] = ranking.score();
+				}
+			}
+			List<ScoredDocument> scored = new ArrayList<>(documents.size());
+			for (int i = 0; i < documents.size(); i++) {
+				scored.add(new ScoredDocument(documents.get(i), scores[i]));
+			}
+			return scored;
+		}
+		catch (Exception e) {
+			log.warn("Failed to get batch relevance scores, falling back to per-document scoring: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private ScoredDocument scoreDocument(Document doc, PredictionRequest request, OperationContext ctx) {
+		var prompt = String.format(props.getPrompt().getRankedKPrompt(),
+				request.origin(), request.destination(), request.travelDate(), doc.getText());
+
+		try {
+			var relevance = llmResponseCache.getOrCreate(AUTO_LLM, null, prompt, Relevance.class,
+					() -> ctx.ai().withAutoLlm().createObjectIfPossible(prompt, Relevance.class));
+			return new ScoredDocument(doc, relevance != null ? relevance.score() : 0);
+		}
+		catch (Exception e) {
+			log.warn("Failed to get relevance score for document: {}", e.getMessage());
+			return new ScoredDocument(doc, 0);
+		}
+	}
+
 	@Action(description = "Get weather data")
 	public WeatherAnalysis weatherAnalysis(PredictionRequest request, OperationContext context) {
+		var originWeather = fetchAsync("Origin weather lookup",
+				() -> weatherService.getWeatherForecast(request.origin(), request.travelDate()), null);
+		var destinationWeather = fetchAsync("Destination weather lookup",
+				() -> weatherService.getWeatherForecast(request.destination(), request.travelDate()), null);
+		Map<String, WeatherData> weatherByAirport = new LinkedHashMap<>();
+		weatherByAirport.put(request.origin(), originWeather.join());
+		weatherByAirport.put(request.destination(), destinationWeather.join());
+		if (props.getWeather().getMode() == ConfigProps.WeatherMode.RULES) {
+			return weatherSeverityClassifier.classify(weatherByAirport);
+		}
+
 		var weatherData = MessageFormat.format("{0}\n{1}",
-				weatherService.getWeatherForecast(request.origin(), request.travelDate()),
-				weatherService.getWeatherForecast(request.destination(), request.travelDate()));
+				Objects.toString(originWeather.join(), "Weather unavailable"),
+				Objects.toString(destinationWeather.join(), "Weather unavailable"));
 		try {
-			return context.ai().withAutoLlm().createObjectIfPossible(String.format(props.getPrompt()
-					.getWeatherPrompt(), request.origin(), request.destination(), request.travelDate(), weatherData), WeatherAnalysis.class);
+			var prompt = String.format(props.getPrompt().getWeatherPrompt(),
+					request.origin(), request.destination(), request.travelDate(), weatherData);
+			return llmResponseCache.getOrCreate(AUTO_LLM, null, prompt, WeatherAnalysis.class,
+					() -> context.ai().withAutoLlm().createObjectIfPossible(prompt, WeatherAnalysis.class));
 		}
 		catch (Exception e) {
 			log.error("Error getting weather data", e);
@@ -156,16 +257,11 @@ public class DelayPredictCoPilot {
 	public PredictionResponse predictFlightDelay(PredictionRequest request, FlightDocs rogDocs, WeatherAnalysis weatherAnalysis, OperationContext ctx) throws IOException {
 		log.info("Predicting delays for route: {} to {}", request.origin(), request.destination());
 
-		// Fetch relevant historical data
-		var historicalFlights = flightRepository.findByRoute(
-				request.origin(),
-				request.destination(),
-				request.travelDate().toLocalDate().minusMonths(props.getHistoryPeriodMonths()).atStartOfDay(),
-				request.travelDate().toLocalDate().minusDays(1).atTime(23, 59, 59)
-		);
+		// Per-airline historical stats for the route
+		var statsByAirline = statsPredictionService.routeStats(request.origin(), request.destination(), request.travelDate());
 
 		// Fetch flight schedule for the given day
-		var scheduledFlights = flightRepository.findByRouteAndDepartureDate(
+		var scheduledFlights = flightRepository.findRouteFlights(
 				request.origin(),
 				request.destination(),
 				request.travelDate().toLocalDate().atStartOfDay(),
@@ -178,34 +274,53 @@ public class DelayPredictCoPilot {
 
 		// Prepare data for each airline
 		var predictions = new ArrayList<AirlinePrediction>();
-		var flightsByAirline = historicalFlights.stream()
-				.collect(Collectors.groupingBy(Flight::getAirline));
-
 		var scheduleByAirline = scheduledFlights.stream()
-				.collect(Collectors.groupingBy(Flight::getAirline));
+				.collect(Collectors.groupingBy(RouteFlight::airlineCode, Collectors.mapping(RouteFlight::schedule, Collectors.toList())));
 
-		flightsByAirline.forEach((airline, airlineFlights) -> {
-			// 0. Get supporting flight stats
-			FlightAuxStats flightAuxStats = flightAuxStats(airlineFlights);
-			List<FlightSchedule> schedule = scheduleByAirline.getOrDefault(airline, Collections.emptyList()).stream()
-					.map(f -> new FlightSchedule(f.getFlightNumber(), f.getScheduledDeparture(), f.getScheduledArrival(), f.getAircraftType()))
-					.toList();
-
-			// 1. Initial analysis by the Analyst
-			var initialAnalysis = initialPrediction(request, airline, flightAuxStats, weatherAnalysis, ragContext, ctx);
-			// 2. Skeptic critiques the analysis
-			var critique = reviewPrediction(initialAnalysis, request, flightAuxStats, weatherAnalysis, ragContext, ctx);
-			// 3. Lead analyst produces the final prediction based on the critique
-			var finalAnalysis = finalPrediction(initialAnalysis, critique, ctx);
-			predictions.add(finalAnalysis.toAirlinePrediction(schedule));
-		});
+		// Run the analyst/skeptic/lead chain for each airline concurrently, bounded by the request deadline
+		var permits = new Semaphore(props.getAirlineConcurrency());
+		var executor = Executors.newVirtualThreadPerTaskExecutor();
+		var chains = new LinkedHashMap<Airline, Future<AirlinePrediction>>();
+		long deadline = System.nanoTime() + props.getRequestTimeout().toNanos();
+		try {
+			statsByAirline.forEach((airline, flightAuxStats) -> {
+				List<FlightSchedule> schedule = scheduleByAirline.getOrDefault(airline.getCode(), Collections.emptyList());
+				chains.put(airline, executor.submit(() -> {
+					permits.acquire();
+					try {
+						var result = predictAirline(request, airline, flightAuxStats, weatherAnalysis, ragContext, ctx);
+						var prediction = result.details().toAirlinePrediction(schedule, result.path());
+						// Streaming callers see each airline as soon as its chain completes
+						predictionStreams.publish(request, prediction);
+						return prediction;
+					}
+					finally {
+						permits.release();
+					}
+				}));
+			});
+
+			chains.forEach((airline, chain) -> {
+				try {
+					predictions.add(chain.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+				}
+				catch (Exception e) {
+					chain.cancel(true);
+					log.warn("Prediction for airline {} did not complete in time, falling back to statistical model: {}",
+							airline.getCode(), e.toString());
+					var prediction = statisticalPrediction(airline, statsByAirline.get(airline), weatherAnalysis, request)
+							.toAirlinePrediction(scheduleByAirline.getOrDefault(airline.getCode(), Collections.emptyList()), ReviewPath.STATISTICAL);
+					predictionStreams.publish(request, prediction);
+					predictions.add(prediction);
+				}
+			});
+		}
+		finally {
+			executor.shutdownNow();
+		}
 
 		// Sort by confidence score
-		predictions.sort((a, b) -> {
-			double scoreA = (100 - a.delayProbability()) * a.confidenceScore() / 100;
-			double scoreB = (100 - b.delayProbability()) * b.confidenceScore() / 100;
-			return Double.compare(scoreB, scoreA);
-		});
+		predictions.sort(AirlinePrediction.RANKING);
 
 		return PredictionResponse.builder()
 				.origin(request.origin())
@@ -216,45 +331,88 @@ public class DelayPredictCoPilot {
 				.build();
 	}
 
-	private PredictionDetails initialPrediction(PredictionRequest request, Airline airline, FlightAuxStats flightAuxStats,
+	private AirlineResult predictAirline(PredictionRequest request, Airline airline, FlightAuxStats flightAuxStats,
+			WeatherAnalysis weatherAnalysis, String ragContext, OperationContext ctx) {
+		// 1. Initial analysis by the Analyst
+		var analysis = initialPrediction(request, airline, flightAuxStats, weatherAnalysis, ragContext, ctx);
+		var baseline = statisticalPrediction(airline, flightAuxStats, weatherAnalysis, request);
+		if (analysis.isEmpty()) {
+			// Fallback to statistical prediction (real world implementation considers more aspects)
+			return new AirlineResult(baseline, ReviewPath.STATISTICAL);
+		}
+		var initialAnalysis = analysis.get();
+		// Stable route where the analyst agrees with the numbers: the review stages would not change the outcome
+		if (agreesWithBaseline(initialAnalysis, baseline, flightAuxStats)) {
+			log.info("Analyst prediction for {} agrees with the statistical baseline, skipping review", airline.getCode());
+			return new AirlineResult(initialAnalysis, ReviewPath.BASELINE_AGREEMENT);
+		}
+		// 2. Skeptic critiques the analysis
+		var critique = reviewPrediction(initialAnalysis, request, flightAuxStats, weatherAnalysis, ragContext, ctx);
+		// 3. Lead analyst produces the final prediction based on the critique
+		return new AirlineResult(finalPrediction(initialAnalysis, critique, ctx),
+				critique.consistent() ? ReviewPath.CONSISTENT : ReviewPath.REVISED);
+	}
+
+	private PredictionDetails statisticalPrediction(Airline airline, FlightAuxStats flightAuxStats, WeatherAnalysis weatherAnalysis,
+			PredictionRequest request) {
+		var crewAnalysis = crewService.crewAvailability(airline, request.travelDate());
+		return statsPredictionService.createStatisticalPrediction(airline, flightAuxStats, weatherAnalysis, crewAnalysis);
+	}
+
+	private boolean agreesWithBaseline(PredictionDetails details, PredictionDetails baseline, FlightAuxStats flightAuxStats) {
+		var policy = props.getEarlyExit();
+		return policy.isEnabled()
+				&& flightAuxStats.totalFlights() >= policy.getMinSampleSize()
+				&& details.delayProbability() != null
+				&& details.expectedDelay() != null
+				&& Math.abs(details.delayProbability() - baseline.delayProbability()) <= policy.getMaxProbabilityDelta()
+				&& Math.abs(details.expectedDelay() - baseline.expectedDelay()) <= policy.getMaxDelayDelta();
+	}
+
+	/**
+	 * The analyst's prediction, or empty when the analyst fails so the caller can fall back to the statistical model.
+	 */
+	private Optional<PredictionDetails> initialPrediction(PredictionRequest request, Airline airline, FlightAuxStats flightAuxStats,
 			WeatherAnalysis weatherAnalysis, String ragContext, OperationContext ctx) {
-		var prompt = String.format(props.getPrompt().getAnalystPrompt(), request.origin(), request.destination(),
-				airline.getId(), airline.getCode(), airline.getName(),
-				request.travelDate(), request.travelDate().getDayOfWeek(),
-				flightAuxStats.avgDelay(), flightAuxStats.onTimePercentage(), flightAuxStats.totalFlights(),
-				flightAuxStats.cancelRate(), ragContext, weatherAnalysis, flightAuxStats.pastIncidents());
+		// Over budget: past incidents (13) are shortened first, then the RAG context (11)
+		var prompt = renderPrompt("Analyst", props.getPrompt().getAnalystTemplate(), props.getPrompt().getAnalystTokenBudget(),
+				new Object[] {request.origin(), request.destination(),
+						airline.getId(), airline.getCode(), airline.getName(),
+						request.travelDate(), request.travelDate().getDayOfWeek(),
+						flightAuxStats.avgDelay(), flightAuxStats.onTimePercentage(), flightAuxStats.totalFlights(),
+						flightAuxStats.cancelRate(), ragContext, weatherAnalysis, flightAuxStats.pastIncidents()}, 13, 11);
 
 		try {
+			// Not cached: the answer also depends on what the crew tool returns at call time
 			var details = ctx.ai().withAutoLlm()
 					.withSystemPrompt(VIMANA_ANALYST.contribution())
 					.withToolObjects(crewService) // optional, this can be pre-computed as well
 					.createObjectIfPossible(prompt, PredictionDetails.class);
 
 			if (details != null) {
-				return details;
+				return Optional.of(details);
 			}
 			log.warn("Initial prediction failed, falling back to statistical model.");
 		}
 		catch (Exception e) {
 			log.error("Error getting initial prediction, falling back to statistical model", e);
 		}
-
-		// Fallback to statistical prediction (real world implementation considers more aspects)
-		var crewAnalysis = crewService.crewAvailability(airline, request.travelDate());
-		return statsPredictionService.createStatisticalPrediction(airline, flightAuxStats, weatherAnalysis, crewAnalysis);
+		return Optional.empty();
 	}
 
 	private Critique reviewPrediction(PredictionDetails initialDetails, PredictionRequest request, FlightAuxStats flightAuxStats,
 			WeatherAnalysis weatherAnalysis, String ragContext, OperationContext ctx) {
 		try {
-			var critiquePrompt = String.format(props.getPrompt().getCritiquePrompt(),
-					request.origin(), request.destination(),
-					flightAuxStats.avgDelay(), flightAuxStats.onTimePercentage(), flightAuxStats.cancelRate(),
-					ragContext, weatherAnalysis, flightAuxStats.pastIncidents(), objectMapper.writeValueAsString(initialDetails));
+			// Over budget: past incidents (7) are shortened first, then the RAG context (5)
+			var critiquePrompt = renderPrompt("Critique", props.getPrompt().getCritiqueTemplate(), props.getPrompt().getCritiqueTokenBudget(),
+					new Object[] {request.origin(), request.destination(),
+							flightAuxStats.avgDelay(), flightAuxStats.onTimePercentage(), flightAuxStats.cancelRate(),
+							ragContext, weatherAnalysis, flightAuxStats.pastIncidents(), objectMapper.writeValueAsString(initialDetails)}, 7, 5);
 
-			var critique = ctx.ai().withAutoLlm()
-					.withSystemPrompt(VIMANA_SKEPTIC.contribution())
-					.createObjectIfPossible(critiquePrompt, Critique.class);
+			var critique = llmResponseCache.getOrCreate(AUTO_LLM, VIMANA_SKEPTIC.contribution(), critiquePrompt, Critique.class,
+					() -> ctx.ai().withAutoLlm()
+							.withSystemPrompt(VIMANA_SKEPTIC.contribution())
+							.createObjectIfPossible(critiquePrompt, Critique.class));
 
 			if (critique != null) {
 				log.info("Received critique: {}", critique);
@@ -274,12 +432,16 @@ public class DelayPredictCoPilot {
 		}
 
 		try {
-			var finalPrompt = String.format(props.getPrompt()
-					.getLeadAnalystPrompt(), objectMapper.writeValueAsString(initialDetails), objectMapper.writeValueAsString(critique));
+			// Over budget: the critique (1) is shortened first, then the initial prediction (0); both are pretty-printed
+			// so they are cut at line boundaries
+			var json = objectMapper.writerWithDefaultPrettyPrinter();
+			var finalPrompt = renderPrompt("Lead analyst", props.getPrompt().getLeadAnalystTemplate(), props.getPrompt().getLeadAnalystTokenBudget(),
+					new Object[] {json.writeValueAsString(initialDetails), json.writeValueAsString(critique)}, 1, 0);
 
-			var finalDetails = ctx.ai().withAutoLlm()
-					.withSystemPrompt(VIMANA_LEAD_ANALYST.contribution())
-					.createObjectIfPossible(finalPrompt, PredictionDetails.class);
+			var finalDetails = llmResponseCache.getOrCreate(AUTO_LLM, VIMANA_LEAD_ANALYST.contribution(), finalPrompt, PredictionDetails.class,
+					() -> ctx.ai().withAutoLlm()
+							.withSystemPrompt(VIMANA_LEAD_ANALYST.contribution())
+							.createObjectIfPossible(finalPrompt, PredictionDetails.class));
 
 			if (finalDetails != null) {
 				log.info("Final prediction generated after review.");
@@ -294,63 +456,33 @@ public class DelayPredictCoPilot {
 		return initialDetails;
 	}
 
-	private String recentIncidents(List<Flight> flights) {
-		var delay = flights.stream()
-				.filter(f -> f.getDelayMinutes() > props.getDelayMinutes() || f.getStatus() == FlightStatus.DELAYED)
-				.sorted((a, b) -> b.getScheduledDeparture().compareTo(a.getScheduledDeparture()))
-				.limit(props.getDelayLimit())
-				.map(f -> String.format("Departure date: %s,  Status: %s,  Delay: %d (min delay), Day Of week: %s",
-						f.getScheduledDeparture().toLocalDate(),
-						f.getStatus(),
-						f.getDelayMinutes(),
-						f.getScheduledDeparture().getDayOfWeek()))
-				.collect(Collectors.joining("; "));
-		var cancel = flights.stream()
-				.filter(f -> (f.getStatus() == (FlightStatus.DIVERTED) || (f.getStatus() == FlightStatus.CANCELLED)))
-				.map(f -> String.format("Departure Date: %s, Status: %s:,  Day of week: %s:",
-						f.getScheduledDeparture().toLocalDate(),
-						f.getStatus(),
-						f.getScheduledDeparture().getDayOfWeek()))
-				.collect(Collectors.joining("; "));
-
-		return new StringJoiner("\n").add(delay).add(cancel).toString();
+	/**
+	 * Runs a retrieval call on a virtual thread, completing with {@code fallback} if it fails or exceeds the retrieval timeout.
+	 */
+	private <T> CompletableFuture<T> fetchAsync(String call, Supplier<T> supplier, T fallback) {
+		return CompletableFuture.supplyAsync(supplier, ioExecutor)
+				.orTimeout(props.getRetrievalTimeout().toMillis(), TimeUnit.MILLISECONDS)
+				.exceptionally(e -> {
+					log.warn("{} failed, continuing without it: {}", call, e.toString());
+					return fallback;
+				});
+	}
+
+	private String renderPrompt(String stage, PromptTemplate template, int tokenBudget, Object[] args, int... elasticArgs) {
+		var rendered = template.render(tokenBudget, args, elasticArgs);
+		if (rendered.tokens() > tokenBudget) {
+			log.warn("{} prompt: {} tokens, over the budget of {} after shortening", stage, rendered.tokens(), tokenBudget);
+		}
+		else if (rendered.truncated()) {
+			log.info("{} prompt: {} tokens, truncated from {} to fit the budget of {}", stage, rendered.tokens(), rendered.fullTokens(), tokenBudget);
+		}
+		else {
+			log.info("{} prompt: {} tokens", stage, rendered.tokens());
+		}
+		return rendered.text();
 	}
 
-	private FlightAuxStats flightAuxStats(List<Flight> flights) {
-		return flights.stream()
-				.collect(
-						Collector.of(
-								() -> new Object() {
-									double sumDelay = 0;
-									int count = 0;
-									int onTimeCount = 0;
-									int cancelledCount = 0;
-								},
-								(acc, f) -> {
-									acc.sumDelay += f.getDelayMinutes();
-									acc.count++;
-									if (f.getDelayMinutes() <= props.getAcceptableDelayMinutes()) {
-										acc.onTimeCount++;
-									}
-									if (f.getStatus() == FlightStatus.CANCELLED) {
-										acc.cancelledCount++;
-									}
-								},
-								(acc1, acc2) -> {
-									acc1.sumDelay += acc2.sumDelay;
-									acc1.count += acc2.count;
-									acc1.onTimeCount += acc2.onTimeCount;
-									acc1.cancelledCount += acc2.cancelledCount;
-									return acc1;
-								},
-								acc -> {
-									double avgDelay = acc.count == 0 ? 0.0 : acc.sumDelay / acc.count;
-									double onTimePercentage = acc.count == 0 ? 0.0 : (acc.onTimeCount * 100.0) / acc.count;
-									double cancelRate = acc.count == 0 ? 0.0 : (acc.cancelledCount * 100.0) / acc.count;
-									return new FlightAuxStats(avgDelay, onTimePercentage, cancelRate, recentIncidents(flights), acc.count);
-								}
-						)
-				);
+	private record AirlineResult(PredictionDetails details, ReviewPath path) {
 	}
 
 }
@@ -3,14 +3,22 @@ package io.ai.agent.config;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Setter;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "prediction")
 @Component
@@ -20,11 +28,25 @@ public class ConfigProps {
 	private int retryAttempts = 3;
 	private int historyPeriodMonths = 1;
 	private int delayLimit;
+	private int incidentLimit = 10;
 	private double confidenceScore;
 	private int delayMinutes;
 	private int acceptableDelayMinutes;
+	private int airlineConcurrency = 4;
+	private int maxFlexibilityDays = 7;
+	private Duration requestTimeout = Duration.ofSeconds(60);
+	/** per-call timeout for vector searches and weather lookups ahead of the LLM calls */
+	private Duration retrievalTimeout = Duration.ofSeconds(5);
 	private Vector vector;
 	private Prompt prompt;
+	private Ingestion ingestion = new Ingestion();
+	private ResultCache resultCache = new ResultCache();
+	private LlmCache llmCache = new LlmCache();
+	private RouteHistory routeHistory = new RouteHistory();
+	private EarlyExit earlyExit = new EarlyExit();
+	private Jobs jobs = new Jobs();
+	private Batch batch = new Batch();
+	private Weather weather = new Weather();
 
 	@PostConstruct
 	void validate() {
@@ -40,8 +62,123 @@ public class ConfigProps {
 		private double similarityThreshold;
 		private int topK;
 		private int rankedK;
+		private int queueCapacity = 50000;
+		private int embeddingWorkers = 4;
+		private Duration flushInterval = Duration.ofSeconds(1);
+		/** retries of a failed embedding batch before its documents are kept for the next embedding run */
+		private int embeddingRetries = 3;
+		/** wait before the first retry, doubled for each further one */
+		private Duration embeddingRetryBackoff = Duration.ofSeconds(1);
+		private Reranker reranker = Reranker.LLM_BATCH;
+		private double mmrLambda = 0.7;
+		private double duplicateThreshold = 0.95;
+		private String embeddingModel = "ai/embeddinggemma";
+		private int queryCacheSize = 2048;
+		/** how long identical searches share one result, 0 to disable */
+		private Duration searchResultTtl = Duration.ofMinutes(2);
+		/** most recently used search results kept for sharing */
+		private int searchResultCacheSize = 1024;
 	}
 
+	public enum Reranker {
+		/** one LLM call per candidate document */
+		LLM,
+		/** one LLM call scoring all candidates, per-document calls only when it cannot be parsed */
+		LLM_BATCH,
+		/** no LLM call: cosine similarity of stored embeddings against query views, with maximal marginal relevance */
+		EMBEDDING
+	}
+
+	@Data
+	public static class Ingestion {
+		private int batchSize = 5000;
+		private DataSize chunkSize = DataSize.ofMegabytes(8);
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	@Data
+	public static class ResultCache {
+		private boolean enabled = true;
+		private Duration ttl = Duration.ofMinutes(10);
+		private Duration staleTtl = Duration.ofMinutes(30);
+		private int maxEntries = 10000;
+	}
+
+	@Data
+	public static class LlmCache {
+		private boolean enabled = true;
+		private Duration ttl = Duration.ofHours(1);
+		/** TTL overrides keyed by the simple name of the response type, e.g. WeatherAnalysis */
+		private Map<String, Duration> typeTtl = new HashMap<>();
+		private int maxEntries = 5000;
+		/** how often expired rows are deleted from llm_response_cache */
+		private Duration purgeInterval = Duration.ofHours(1);
+	}
+
+	/**
+	 * Skip the skeptic and lead analyst when the analyst agrees with the statistical baseline on a well-sampled route.
+	 */
+	@Data
+	public static class EarlyExit {
+		private boolean enabled = true;
+		/** max difference in delay probability, percentage points */
+		private double maxProbabilityDelta = 10.0;
+		/** max difference in expected delay, minutes */
+		private int maxDelayDelta = 10;
+		/** min number of historical flights for the airline on the route */
+		private int minSampleSize = 100;
+	}
+
+	@Data
+	public static class Jobs {
+		private int maxJobs = 1000;
+		/** how long finished jobs stay retrievable */
+		private Duration ttl = Duration.ofMinutes(30);
+		/** optional URL that receives each finished job as JSON */
+		private String webhookUrl;
+	}
+
+	@Data
+	public static class Weather {
+		private WeatherMode mode = WeatherMode.RULES;
+		/** Open-Meteo endpoint; point at a local stub server in tests */
+		private String baseUrl = "https://api.open-meteo.com";
+		/** how long an airport-hour stays in the in-memory weather index */
+		private Duration cacheTtl = Duration.ofMinutes(30);
+		/** km/h */
+		private double cautionWindSpeed = 35.0;
+		private double severeWindSpeed = 55.0;
+		/** metres */
+		private double cautionVisibility = 5000.0;
+		private double severeVisibility = 1000.0;
+		/** percent */
+		private int severePrecipitationProbability = 80;
+		/** WMO weather codes */
+		private Set<Integer> cautionCodes = new HashSet<>(List.of(45, 48, 51, 53, 55, 61, 63, 71, 73, 80, 81, 85));
+		private Set<Integer> severeCodes = new HashSet<>(List.of(56, 57, 65, 66, 67, 75, 77, 82, 86, 95, 96, 99));
+	}
+
+	public enum WeatherMode {
+		/** deterministic thresholds, no LLM call */
+		RULES,
+		/** LLM summary of the raw observations */
+		LLM
+	}
+
+	@Data
+	public static class Batch {
+		private int maxRequests = 500;
+		private int parallelism = 4;
+		/** how long a batch stream may stay open before it is closed and its remaining predictions cancelled */
+		private Duration timeout = Duration.ofMinutes(10);
+	}
+
+	@Data
+	public static class RouteHistory {
+		/** keep a columnar in-memory copy of the flight history and compute route stats from it */
+		private boolean enabled = false;
+		private int fetchSize = 10000;
+	}
 
 	@Data
 	public static class Prompt {
@@ -56,23 +193,43 @@ public class ConfigProps {
 		private String weatherPrompt;
 		@Setter(AccessLevel.PRIVATE)
 		private String rankedKPrompt;
+		@Setter(AccessLevel.PRIVATE)
+		private String rankedKBatchPrompt;
 		private final Resource analystPath;
 		private final Resource leadAnalystPath;
 		private final Resource critiquePath;
 		private final Resource weatherPath;
 		private final Resource rankedKPath;
+		private final Resource rankedKBatchPath;
+		/** templates parsed once, rendered within the per-stage token budgets below */
+		private final PromptTemplate analystTemplate;
+		private final PromptTemplate critiqueTemplate;
+		private final PromptTemplate leadAnalystTemplate;
+		private final int analystTokenBudget;
+		private final int critiqueTokenBudget;
+		private final int leadAnalystTokenBudget;
 
-		Prompt(Resource analystPath, Resource leadAnalystPath, Resource critiquePath, Resource weatherPath, Resource rankedKPath) throws IOException {
+		Prompt(Resource analystPath, Resource leadAnalystPath, Resource critiquePath, Resource weatherPath, Resource rankedKPath,
+				Resource rankedKBatchPath, @DefaultValue("3000") int analystTokenBudget, @DefaultValue("3000") int critiqueTokenBudget,
+				@DefaultValue("2000") int leadAnalystTokenBudget) throws IOException {
 			this.analystPath = analystPath;
 			this.leadAnalystPath = leadAnalystPath;
 			this.critiquePath = critiquePath;
 			this.weatherPath = weatherPath;
 			this.rankedKPath = rankedKPath;
+			this.rankedKBatchPath = rankedKBatchPath;
 			setAnalystPrompt(analystPath.getContentAsString(Charset.defaultCharset()));
 			setCritiquePrompt(critiquePath.getContentAsString(Charset.defaultCharset()));
 			setLeadAnalystPrompt(leadAnalystPath.getContentAsString(Charset.defaultCharset()));
 			setWeatherPrompt(weatherPath.getContentAsString(Charset.defaultCharset()));
 			setRankedKPrompt(rankedKPath.getContentAsString(Charset.defaultCharset()));
+			setRankedKBatchPrompt(rankedKBatchPath.getContentAsString(Charset.defaultCharset()));
+			this.analystTemplate = PromptTemplate.compile(analystPrompt);
+			this.critiqueTemplate = PromptTemplate.compile(critiquePrompt);
+			this.leadAnalystTemplate = PromptTemplate.compile(leadAnalystPrompt);
+			this.analystTokenBudget = analystTokenBudget;
+			this.critiqueTokenBudget = critiqueTokenBudget;
+			this.leadAnalystTokenBudget = leadAnalystTokenBudget;
 		}
 	}
 
@@ -0,0 +1,21 @@
+package io.ai.agent.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfiguration {
+
+	/**
+	 * Executor for blocking remote calls (LLM, embedding, external APIs) so they never occupy the common ForkJoinPool.
+	 */
+	@Bean(destroyMethod = "close")
+	public ExecutorService ioExecutor() {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory());
+	}
+}
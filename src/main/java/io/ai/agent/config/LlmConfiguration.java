@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.model.NoopApiKey;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
@@ -23,7 +24,6 @@ import org.springframework.ai.openai.api.OpenAiApi;
 import org.springframework.ai.retry.TransientAiException;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -117,8 +117,13 @@ public class LlmConfiguration {
 
 	@Bean
 	@DependsOn({"geminiEmbeddingServices", "dockerEmbeddingServices"})
-	public VectorStore pgVectorStore(JdbcTemplate jdbcTemplate, ConfigProps props, @Qualifier("ai/embeddinggemma") EmbeddingService embeddingService) {
-		return PgVectorStore.builder(jdbcTemplate, embeddingService.getModel())
+	public EmbeddingModel vectorEmbeddingModel(ConfigurableListableBeanFactory factory, ConfigProps props) {
+		return factory.getBean(props.getVector().getEmbeddingModel(), EmbeddingService.class).getModel();
+	}
+
+	@Bean
+	public VectorStore pgVectorStore(JdbcTemplate jdbcTemplate, ConfigProps props, EmbeddingModel vectorEmbeddingModel) {
+		return PgVectorStore.builder(jdbcTemplate, vectorEmbeddingModel)
 				.dimensions(props.getVector().getDimension())
 				.distanceType(COSINE_DISTANCE)
 				.indexType(HNSW)
@@ -0,0 +1,156 @@
+package io.ai.agent.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link String#format} template parsed once into literal and placeholder segments. Rendering enforces a token
+ * budget by shortening the designated elastic arguments, in priority order, at entry boundaries.
+ * Tokens are estimated at four characters per token.
+ */
+public final class PromptTemplate {
+
+	private static final Pattern SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+	private static final int CHARS_PER_TOKEN = 4;
+	private static final String TRUNCATED = " [truncated]";
+
+	private final List<Segment> segments;
+	private final int literalLength;
+
+	private PromptTemplate(List<Segment> segments) {
+		this.segments = segments;
+		this.literalLength = segments.stream().mapToInt(s -> s.literal() == null ? 0 : s.literal().length()).sum();
+	}
+
+	public static PromptTemplate compile(String template) {
+		List<Segment> segments = new ArrayList<>();
+		Matcher matcher = SPECIFIER.matcher(template);
+		StringBuilder literal = new StringBuilder();
+		int position = 0;
+		int nextArg = 0;
+		int lastArg = -1;
+		while (matcher.find()) {
+			literal.append(template, position, matcher.start());
+			position = matcher.end();
+			String conversion = matcher.group(6);
+			if (conversion.equals("%")) {
+				literal.append('%');
+				continue;
+			}
+			if (conversion.equals("n")) {
+				literal.append(System.lineSeparator());
+				continue;
+			}
+			if (!literal.isEmpty()) {
+				segments.add(new Segment(literal.toString(), -1, null));
+				literal.setLength(0);
+			}
+			String flags = matcher.group(2) == null ? "" : matcher.group(2);
+			int arg;
+			if (flags.indexOf('<') >= 0) {
+				// %<s reuses the previous argument and, like Formatter, does not advance the ordinary index
+				if (lastArg < 0) {
+					throw new IllegalArgumentException("%< without a previous argument at " + matcher.start() + ": " + template);
+				}
+				arg = lastArg;
+			}
+			else {
+				arg = matcher.group(1) != null
+						? Integer.parseInt(matcher.group(1).substring(0, matcher.group(1).length() - 1)) - 1
+						: nextArg++;
+			}
+			lastArg = arg;
+			// Each placeholder is rendered with its argument alone, so the index and '<' are dropped from the spec
+			String spec = matcher.group().substring(matcher.group(1) == null ? 1 : 1 + matcher.group(1).length()).replace("<", "");
+			// plain %s needs no Formatter at render time
+			segments.add(new Segment(null, arg, spec.equals("s") ? null : "%" + spec));
+		}
+		literal.append(template.substring(position));
+		if (!literal.isEmpty()) {
+			segments.add(new Segment(literal.toString(), -1, null));
+		}
+		return new PromptTemplate(List.copyOf(segments));
+	}
+
+	public static int estimateTokens(CharSequence text) {
+		return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+	}
+
+	/**
+	 * Renders with all arguments in full.
+	 */
+	public String format(Object... args) {
+		return join(args);
+	}
+
+	/**
+	 * Renders within {@code tokenBudget}, shortening the formatted text of the arguments at {@code elasticArgs} (first
+	 * listed is shortened first) from the end, at the last {@code "\n"} or {@code "; "} boundary that fits. The result
+	 * can still exceed the budget when the literals and other arguments alone do.
+	 */
+	public Rendered render(int tokenBudget, Object[] args, int... elasticArgs) {
+		String[] formatted = new String[segments.size()];
+		int length = literalLength;
+		for (int i = 0; i < formatted.length; i++) {
+			Segment segment = segments.get(i);
+			if (segment.literal() == null) {
+				formatted[i] = formatArg(segment, args[segment.arg()]);
+				length += formatted[i].length();
+			}
+		}
+		int fullTokens = (length + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+		int excess = length - tokenBudget * CHARS_PER_TOKEN;
+		boolean truncated = false;
+		for (int e = 0; e < elasticArgs.length && excess > 0; e++) {
+			for (int i = 0; i < formatted.length && excess > 0; i++) {
+				String text = formatted[i];
+				if (segments.get(i).arg() != elasticArgs[e] || text == null || text.isEmpty()) {
+					continue;
+				}
+				String shortened = truncate(text, text.length() - excess - TRUNCATED.length());
+				if (shortened.length() < text.length()) {
+					excess -= text.length() - shortened.length();
+					formatted[i] = shortened;
+					truncated = true;
+				}
+			}
+		}
+		StringBuilder out = new StringBuilder(length);
+		for (int i = 0; i < formatted.length; i++) {
+			out.append(segments.get(i).literal() != null ? segments.get(i).literal() : formatted[i]);
+		}
+		String text = out.toString();
+		return new Rendered(text, estimateTokens(text), fullTokens, truncated);
+	}
+
+	private String join(Object[] args) {
+		StringBuilder out = new StringBuilder(literalLength + 256);
+		for (Segment segment : segments) {
+			out.append(segment.literal() != null ? segment.literal() : formatArg(segment, args[segment.arg()]));
+		}
+		return out.toString();
+	}
+
+	private static String formatArg(Segment segment, Object arg) {
+		return segment.spec() == null ? String.valueOf(arg) : String.format(segment.spec(), arg);
+	}
+
+	private static String truncate(String text, int maxLength) {
+		if (maxLength <= 0) {
+			return TRUNCATED.strip();
+		}
+		int cut = Math.max(text.lastIndexOf('\n', maxLength), text.lastIndexOf("; ", maxLength));
+		return text.substring(0, cut > 0 ? cut : maxLength) + TRUNCATED;
+	}
+
+	/**
+	 * Either a literal, or a placeholder for argument {@code arg} with its format specifier ({@code null} for plain %s).
+	 */
+	private record Segment(String literal, int arg, String spec) {
+	}
+
+	public record Rendered(String text, int tokens, int fullTokens, boolean truncated) {
+	}
+}
@@ -1,5 +1,6 @@
 package io.ai.agent.record;
 
+import java.util.Comparator;
 import java.util.List;
 import lombok.Builder;
 import lombok.extern.jackson.Jacksonized;
@@ -9,5 +10,20 @@ import lombok.extern.jackson.Jacksonized;
 public record AirlinePrediction(String airlineCode, String airlineName, Double delayProbability,
 								Integer expectedDelayMinutes, Double confidenceScore, List<String> riskFactors,
 								String recommendation, HistoricalPerformance historicalPerformance,
-								List<FlightSchedule> schedule) {
+								List<FlightSchedule> schedule, ReviewPath reviewPath) {
+
+	/** Best first: highest on-time probability weighted by confidence */
+	public static final Comparator<AirlinePrediction> RANKING = Comparator.comparingDouble(
+			(AirlinePrediction p) -> (100 - p.delayProbability()) * p.confidenceScore() / 100).reversed();
+
+	public enum ReviewPath {
+		/** analyst output agreed with the statistical baseline, skeptic and lead stages were skipped */
+		BASELINE_AGREEMENT,
+		/** skeptic found the analyst output consistent */
+		CONSISTENT,
+		/** lead analyst revised the analyst output after the critique */
+		REVISED,
+		/** statistical model only, the LLM chain did not complete */
+		STATISTICAL
+	}
 }
@@ -0,0 +1,9 @@
+package io.ai.agent.record;
+
+import lombok.Builder;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Jacksonized
+public record BatchPredictionResult(int index, PredictionRequest request, PredictionResponse response, String error) {
+}
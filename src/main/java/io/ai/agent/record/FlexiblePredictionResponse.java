@@ -0,0 +1,16 @@
+package io.ai.agent.record;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Jacksonized
+public record FlexiblePredictionResponse(String origin, String destination, LocalDateTime travelDate, int flexibilityDays,
+										 List<DateOption> options, LocalDateTime generatedAt) {
+
+	public record DateOption(LocalDate date, AirlinePrediction prediction) {
+	}
+}
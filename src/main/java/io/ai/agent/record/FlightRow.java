@@ -0,0 +1,16 @@
+package io.ai.agent.record;
+
+import io.ai.agent.entity.FlightStatus;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Builder;
+
+@Builder
+public record FlightRow(UUID id, String flightNumber, String airlineCode, String originCode, String destinationCode,
+						LocalDateTime scheduledDeparture, LocalDateTime actualDeparture, int delayMinutes,
+						FlightStatus status, String delayReason, String aircraftType) {
+
+	public String route() {
+		return originCode + "-" + destinationCode;
+	}
+}
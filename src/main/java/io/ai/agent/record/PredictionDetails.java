@@ -11,7 +11,7 @@ public record PredictionDetails(String airlineCode, String airlineName, Double d
 								String recommendation, Double historicalAvgDelay, Double onTimePercentage,
 								Double cancellationPercentage, int totalFlights) {
 
-	public AirlinePrediction toAirlinePrediction(List<FlightSchedule> schedule) {
+	public AirlinePrediction toAirlinePrediction(List<FlightSchedule> schedule, AirlinePrediction.ReviewPath reviewPath) {
 		return AirlinePrediction.builder()
 				.airlineCode(airlineCode)
 				.airlineName(airlineName)
@@ -27,6 +27,7 @@ public record PredictionDetails(String airlineCode, String airlineName, Double d
 						.totalFlights(totalFlights)
 						.build())
 				.schedule(schedule)
+				.reviewPath(reviewPath)
 				.build();
 	}
 }
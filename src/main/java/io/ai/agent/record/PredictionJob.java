@@ -0,0 +1,15 @@
+package io.ai.agent.record;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Jacksonized
+public record PredictionJob(String id, Status status, PredictionRequest request, PredictionResponse result, String error,
+							LocalDateTime submittedAt, LocalDateTime completedAt) {
+
+	public enum Status {
+		PENDING, RUNNING, COMPLETED, FAILED
+	}
+}
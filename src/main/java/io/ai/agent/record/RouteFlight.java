@@ -0,0 +1,14 @@
+package io.ai.agent.record;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a scheduled flight on a route, carrying only what the prediction path reads.
+ */
+public record RouteFlight(String airlineCode, String flightNumber, LocalDateTime scheduledDeparture,
+						  LocalDateTime scheduledArrival, String aircraftType) {
+
+	public FlightSchedule schedule() {
+		return new FlightSchedule(flightNumber, scheduledDeparture, scheduledArrival, aircraftType);
+	}
+}
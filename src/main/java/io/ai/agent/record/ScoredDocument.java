@@ -1,5 +1,6 @@
 package io.ai.agent.record;
 
+import java.util.List;
 import lombok.Builder;
 import lombok.extern.jackson.Jacksonized;
 
@@ -11,4 +12,10 @@ public record ScoredDocument(Document document, int score) {
 
 	public record Relevance(int score) {
 	}
+
+	public record Relevances(List<Ranking> scores) {
+
+		public record Ranking(int index, int score) {
+		}
+	}
 }
@@ -78,6 +78,8 @@ public record WeatherRecord(
 			@JsonProperty("weather_code")
 			List<Integer> weatherCode,
 			List<Double> visibility,
+			@JsonProperty("precipitation_probability")
+			List<Integer> precipitationProbability,
 			List<String> windDirection,
 			List<String> conditions,
 			boolean severeWeather
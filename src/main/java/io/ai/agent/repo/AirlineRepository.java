@@ -1,6 +1,7 @@
 package io.ai.agent.repo;
 
 import io.ai.agent.entity.Airline;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +14,8 @@ import org.springframework.stereotype.Repository;
 public interface AirlineRepository extends JpaRepository<Airline, UUID> {
 	Optional<Airline> findByCode(String code);
 
+	List<Airline> findByCodeIn(Collection<String> codes);
+
 	@Query("SELECT a FROM Airline a ORDER BY a.onTimePerformance DESC")
 	List<Airline> findTopPerformers();
 
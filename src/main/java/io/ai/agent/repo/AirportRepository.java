@@ -1,6 +1,7 @@
 package io.ai.agent.repo;
 
 import io.ai.agent.entity.Airport;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +13,8 @@ import org.springframework.data.repository.query.Param;
 public interface AirportRepository extends JpaRepository<Airport, UUID> {
 	Optional<Airport> findByCode(String code);
 
+	List<Airport> findByCodeIn(Collection<String> codes);
+
 	@Query("SELECT a FROM Airport a WHERE a.congestionLevel > :level")
 	List<Airport> findCongestedAirports(@Param("level") Integer level);
 }
\ No newline at end of file
@@ -2,13 +2,26 @@ package io.ai.agent.repo;
 
 import io.ai.agent.entity.Airline;
 import io.ai.agent.entity.CrewSchedule;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CrewScheduleRepository extends JpaRepository<CrewSchedule, UUID> {
 	List<CrewSchedule> findCrewScheduleByAirline(Airline airline);
+
+	/**
+	 * Duties of the given airlines overlapping the open interval ({@code from}, {@code to}).
+	 */
+	@Query("SELECT cs FROM CrewSchedule cs JOIN FETCH cs.airline WHERE cs.airline IN :airlines " +
+			"AND cs.dutyStart < :to AND cs.dutyEnd > :from")
+	List<CrewSchedule> findOverlapping(@Param("airlines") Collection<Airline> airlines,
+			@Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to);
 }
@@ -1,29 +1,32 @@
 package io.ai.agent.repo;
 
 import io.ai.agent.entity.Flight;
+import io.ai.agent.record.RouteFlight;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, UUID> {
 
-	@Query("SELECT f FROM Flight f JOIN FETCH f.airline JOIN FETCH f.origin JOIN FETCH f.destination WHERE f.origin.code = :origin AND f.destination.code = :destination " +
-			"AND f.scheduledDeparture BETWEEN :startDate AND :endDate")
-	List<Flight> findByRoute(@Param("origin") String origin,
-			@Param("destination") String destination,
-			@Param("startDate") LocalDateTime startDate,
-			@Param("endDate") LocalDateTime endDate);
-
-
-	@Query("SELECT f FROM Flight f JOIN FETCH f.airline JOIN FETCH f.origin JOIN FETCH f.destination WHERE f.origin.code = :origin AND f.destination.code = :destination " +
-			"AND f.scheduledDeparture BETWEEN :startDate AND :endDate")
-	List<Flight> findByRouteAndDepartureDate(@Param("origin") String origin,
+	/**
+	 * Flights on a route departing in [startDate, endDate] as a slim, unmanaged projection ordered by departure.
+	 */
+	@Transactional(readOnly = true)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT new io.ai.agent.record.RouteFlight(f.airline.code, f.flightNumber, f.scheduledDeparture, f.scheduledArrival, f.aircraftType) " +
+			"FROM Flight f WHERE f.origin.code = :origin AND f.destination.code = :destination " +
+			"AND f.scheduledDeparture BETWEEN :startDate AND :endDate ORDER BY f.scheduledDeparture")
+	List<RouteFlight> findRouteFlights(@Param("origin") String origin,
 			@Param("destination") String destination,
 			@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
@@ -36,4 +39,156 @@ public interface FlightRepository extends JpaRepository<Flight, UUID> {
 
 	@Query("SELECT AVG(f.delayMinutes) FROM Flight f WHERE f.airline.code = :airlineCode")
 	Double getAverageDelayByAirline(@Param("airlineCode") String airlineCode);
-}
\ No newline at end of file
+
+	@Query("SELECT DISTINCT CONCAT(f.origin.code, '-', f.destination.code) FROM Flight f")
+	List<String> findDistinctRoutes();
+
+	String PATTERN_BASE = """
+			WITH base AS (
+				SELECT CAST(EXTRACT(HOUR FROM f.scheduled_departure) AS INTEGER) AS hour,
+					o.code AS origin, d.code AS destination, a.code AS airline, a.name AS airline_name,
+					f.delay_minutes, f.status, f.delay_reason,
+					f.scheduled_departure BETWEEN :since AND :until AS recent
+				FROM flight f
+				JOIN airline a ON a.id = f.airline_id
+				JOIN airport o ON o.id = f.origin_id
+				JOIN airport d ON d.id = f.destination_id
+				WHERE :all OR CAST(EXTRACT(HOUR FROM f.scheduled_departure) AS TEXT) = ANY(string_to_array(:hours, ','))
+					OR o.code || '-' || d.code = ANY(string_to_array(:routes, ','))
+					OR a.code = ANY(string_to_array(:airlines, ','))
+			)
+			""";
+
+	/**
+	 * Hourly (all history), route and airline (within [since, until]) statistics in a single scan. Unless {@code all}
+	 * is set, only flights in one of the comma-separated hours, routes or airlines are read; every group keyed by one
+	 * of those is complete, other groups are partial and must be ignored by the caller.
+	 */
+	@Query(value = PATTERN_BASE + """
+			SELECT CASE WHEN GROUPING(hour) = 0 THEN 'hourly' WHEN GROUPING(airline) = 0 THEN 'airline' ELSE 'route' END AS "category",
+				hour AS "hour", origin AS "origin", destination AS "destination", airline AS "airline",
+				MAX(airline_name) AS "airlineName",
+				CASE WHEN GROUPING(hour) = 0 THEN COUNT(*) ELSE COUNT(*) FILTER (WHERE recent) END AS "total",
+				CAST(CASE WHEN GROUPING(hour) = 0 THEN AVG(delay_minutes)
+					ELSE AVG(delay_minutes) FILTER (WHERE recent) END AS DOUBLE PRECISION) AS "avgDelay",
+				COUNT(*) FILTER (WHERE recent AND status = 'CANCELLED') AS "cancelled",
+				COUNT(*) FILTER (WHERE recent AND delay_minutes <= :onTimeMinutes) AS "onTime"
+			FROM base
+			GROUP BY GROUPING SETS ((hour), (origin, destination), (airline))
+			HAVING GROUPING(hour) = 0 OR COUNT(*) FILTER (WHERE recent) > 0
+			""", nativeQuery = true)
+	List<PatternStats> findPatternStats(@Param("since") LocalDateTime since,
+			@Param("until") LocalDateTime until,
+			@Param("onTimeMinutes") int onTimeMinutes,
+			@Param("all") boolean all,
+			@Param("hours") String hours,
+			@Param("routes") String routes,
+			@Param("airlines") String airlines);
+
+	/**
+	 * Top three delay reasons per hour, route and airline, ordered by rank within each group; filtered like
+	 * {@link #findPatternStats}.
+	 */
+	@Query(value = PATTERN_BASE + """
+			, counts AS (
+				SELECT hour, origin, destination, airline, delay_reason,
+					CASE WHEN GROUPING(hour) = 0 THEN COUNT(*) ELSE COUNT(*) FILTER (WHERE recent) END AS cnt
+				FROM base
+				WHERE delay_reason IS NOT NULL AND delay_reason <> ''
+				GROUP BY GROUPING SETS ((hour, delay_reason), (origin, destination, delay_reason), (airline, delay_reason))
+			)
+			SELECT CASE WHEN hour IS NOT NULL THEN 'hourly' WHEN airline IS NOT NULL THEN 'airline' ELSE 'route' END AS "category",
+				hour AS "hour", origin AS "origin", destination AS "destination", airline AS "airline", delay_reason AS "reason"
+			FROM (
+				SELECT counts.*, ROW_NUMBER() OVER (PARTITION BY hour, origin, destination, airline ORDER BY cnt DESC, delay_reason) AS rn
+				FROM counts
+				WHERE cnt > 0
+			) ranked
+			WHERE rn <= 3
+			ORDER BY rn
+			""", nativeQuery = true)
+	List<PatternReason> findTopDelayReasons(@Param("since") LocalDateTime since,
+			@Param("until") LocalDateTime until,
+			@Param("all") boolean all,
+			@Param("hours") String hours,
+			@Param("routes") String routes,
+			@Param("airlines") String airlines);
+
+	@Query(value = PATTERN_BASE + """
+			SELECT origin AS "origin", destination AS "destination", airline AS "airline", airline_name AS "airlineName",
+				CAST(AVG(delay_minutes) AS DOUBLE PRECISION) AS "avgDelay"
+			FROM base
+			WHERE recent
+			GROUP BY origin, destination, airline, airline_name
+			""", nativeQuery = true)
+	List<RouteAirlineDelay> findRouteAirlineDelays(@Param("since") LocalDateTime since,
+			@Param("until") LocalDateTime until,
+			@Param("all") boolean all,
+			@Param("hours") String hours,
+			@Param("routes") String routes,
+			@Param("airlines") String airlines);
+
+	interface PatternKey {
+		String HOURLY = "hourly:";
+		String ROUTE = "route:";
+		String AIRLINE = "airline:";
+
+		String getCategory();
+
+		Integer getHour();
+
+		String getOrigin();
+
+		String getDestination();
+
+		String getAirline();
+
+		default String key() {
+			return switch (getCategory()) {
+				case "hourly" -> hourlyKey(getHour());
+				case "airline" -> airlineKey(getAirline());
+				default -> routeKey(getOrigin(), getDestination());
+			};
+		}
+
+		static String hourlyKey(Integer hour) {
+			return HOURLY + hour;
+		}
+
+		static String routeKey(String origin, String destination) {
+			return ROUTE + origin + "-" + destination;
+		}
+
+		static String airlineKey(String airline) {
+			return AIRLINE + airline;
+		}
+	}
+
+	interface PatternStats extends PatternKey {
+		String getAirlineName();
+
+		Long getTotal();
+
+		Double getAvgDelay();
+
+		Long getCancelled();
+
+		Long getOnTime();
+	}
+
+	interface PatternReason extends PatternKey {
+		String getReason();
+	}
+
+	interface RouteAirlineDelay {
+		String getOrigin();
+
+		String getDestination();
+
+		String getAirline();
+
+		String getAirlineName();
+
+		Double getAvgDelay();
+	}
+}
@@ -0,0 +1,136 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.BatchPredictionResult;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs many predictions with bounded parallelism, doing the work they share once up front: the weather lookup for
+ * each airport and travel time, and the day-of-week pattern search for each travel date. Requests are then run
+ * grouped by travel date and origin so neighbours reuse memoized searches, and identical requests are coalesced by
+ * the prediction cache.
+ * <p>
+ * The batch stops when a result cannot be delivered or the calling thread is interrupted: every prediction still
+ * queued or running is cancelled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchPredictionService {
+
+	private final WeatherService weatherService;
+	private final VectorStoreService vectorStoreService;
+	private final ExecutorService ioExecutor;
+	private final ConfigProps props;
+
+	public void predict(List<PredictionRequest> requests, Function<PredictionRequest, PredictionResponse> predictor,
+			Consumer<BatchPredictionResult> results) {
+		long start = System.nanoTime();
+		prefetch(requests);
+
+		var order = IntStream.range(0, requests.size()).boxed()
+				.sorted(Comparator.comparing((Integer i) -> requests.get(i).travelDate().toLocalDate())
+						.thenComparing(i -> requests.get(i).origin())
+						.thenComparing(i -> requests.get(i).destination()))
+				.toList();
+		runAll(true, order.stream().<Callable<Void>>map(i -> () -> {
+			var request = requests.get(i);
+			BatchPredictionResult result;
+			try {
+				result = new BatchPredictionResult(i, request, predictor.apply(request), null);
+			}
+			catch (Exception e) {
+				log.warn("Batch prediction {} for {}-{} failed: {}", i, request.origin(), request.destination(), e.getMessage());
+				result = new BatchPredictionResult(i, request, null, e.getMessage());
+			}
+			synchronized (results) {
+				results.accept(result);
+			}
+			return null;
+		}).toList());
+		log.info("Predicted {} requests in {} ms", requests.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void prefetch(List<PredictionRequest> requests) {
+		Set<WeatherKey> weather = new LinkedHashSet<>();
+		Set<LocalDate> days = new LinkedHashSet<>();
+		for (var request : requests) {
+			weather.add(new WeatherKey(request.origin(), request.travelDate()));
+			weather.add(new WeatherKey(request.destination(), request.travelDate()));
+			days.add(request.travelDate().toLocalDate());
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		weather.forEach(key -> tasks.add(() -> {
+			weatherService.getWeatherForecast(key.airport(), key.travelDate());
+			return null;
+		}));
+		days.forEach(day -> tasks.add(() -> {
+			vectorStoreService.searchSimilarDocuments(VectorStoreService.flightPatternQuery(day.getDayOfWeek()));
+			return null;
+		}));
+		runAll(false, tasks);
+		log.info("Prefetched weather for {} airport/times and patterns for {} days", weather.size(), days.size());
+	}
+
+	/**
+	 * Runs the tasks with at most {@code batch.parallelism} at a time. On interruption, or with {@code failFast} on the
+	 * first failed task, the remaining tasks are cancelled and the failure is rethrown; otherwise failures are logged.
+	 */
+	private void runAll(boolean failFast, List<Callable<Void>> tasks) {
+		var permits = new Semaphore(props.getBatch().getParallelism());
+		List<Future<Void>> futures = new ArrayList<>(tasks.size());
+		for (var task : tasks) {
+			futures.add(ioExecutor.submit(() -> {
+				permits.acquire();
+				try {
+					return task.call();
+				}
+				finally {
+					permits.release();
+				}
+			}));
+		}
+		for (var future : futures) {
+			try {
+				future.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				futures.forEach(f -> f.cancel(true));
+				throw new CancellationException("Batch interrupted");
+			}
+			catch (ExecutionException e) {
+				if (failFast) {
+					futures.forEach(f -> f.cancel(true));
+					throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+				}
+				log.warn("Batch task failed: {}", e.getCause().getMessage());
+			}
+		}
+	}
+
+	private record WeatherKey(String airport, LocalDateTime travelDate) {
+	}
+}
@@ -5,7 +5,10 @@ import io.ai.agent.entity.CrewSchedule;
 import io.ai.agent.record.CrewAnalysis;
 import io.ai.agent.repo.CrewScheduleRepository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.ai.tool.annotation.Tool;
@@ -22,10 +25,31 @@ public class CrewService {
 		// This is a simplified analysis. A real-world implementation would be much more complex.
 
 		List<CrewSchedule> availableCrew = crewScheduleRepository.findCrewScheduleByAirline(airline).stream()
-				.filter(cs -> departureTime.isAfter(cs.getDutyStart()) && departureTime.isBefore(cs.getDutyEnd()))
+				.filter(cs -> onDuty(cs, departureTime))
 				.toList();
 
-		boolean crewAvailable = !availableCrew.isEmpty();
+		return analysis(!availableCrew.isEmpty());
+	}
+
+	/**
+	 * Loads the duties of all given airlines for departures in [from, to] with one query, for callers that need crew
+	 * availability for many airline and departure combinations.
+	 */
+	public Roster roster(Collection<Airline> airlines, LocalDateTime from, LocalDateTime to) {
+		if (airlines.isEmpty()) {
+			return new Roster(Map.of());
+		}
+		// Widen by a minute so departures exactly at either end are covered by the strict overlap test
+		var duties = crewScheduleRepository.findOverlapping(airlines, from.minusMinutes(1), to.plusMinutes(1)).stream()
+				.collect(Collectors.groupingBy(cs -> cs.getAirline().getCode()));
+		return new Roster(duties);
+	}
+
+	private static boolean onDuty(CrewSchedule schedule, LocalDateTime departureTime) {
+		return departureTime.isAfter(schedule.getDutyStart()) && departureTime.isBefore(schedule.getDutyEnd());
+	}
+
+	private static CrewAnalysis analysis(boolean crewAvailable) {
 		boolean sufficientRest = true; // Assuming sufficient rest for simplicity
 		boolean withinDutyLimits = true; // Assuming within duty limits for simplicity
 
@@ -35,4 +59,22 @@ public class CrewService {
 				.withinDutyLimits(withinDutyLimits)
 				.build();
 	}
+
+	/**
+	 * Crew duties per airline code, answering the same question as {@link #crewAvailability} without a query.
+	 */
+	public static final class Roster {
+
+		private final Map<String, List<CrewSchedule>> duties;
+
+		private Roster(Map<String, List<CrewSchedule>> duties) {
+			this.duties = duties;
+		}
+
+		public CrewAnalysis crewAvailability(Airline airline, LocalDateTime departureTime) {
+			boolean crewAvailable = duties.getOrDefault(airline.getCode(), List.of()).stream()
+					.anyMatch(cs -> onDuty(cs, departureTime));
+			return analysis(crewAvailable);
+		}
+	}
 }
@@ -1,27 +1,34 @@
 package io.ai.agent.service;
 
+import io.ai.agent.config.ConfigProps;
 import io.ai.agent.entity.Airline;
-import io.ai.agent.entity.Airport;
-import io.ai.agent.entity.Flight;
-import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightRow;
 import io.ai.agent.repo.AirlineRepository;
-import io.ai.agent.repo.AirportRepository;
 import io.ai.agent.repo.FlightRepository;
+import io.ai.agent.repo.FlightRepository.PatternKey;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.ai.document.Document;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -31,11 +38,17 @@ public class DataIngestionService {
 
 	private final FlightRepository flightRepository;
 	private final AirlineRepository airlineRepository;
-	private final AirportRepository airportRepository;
 	private final VectorStoreService vectorStoreService;
+	private final FlightCsvReader flightCsvReader;
+	private final FlightBulkWriter flightBulkWriter;
+	private final EmbeddingPipeline embeddingPipeline;
+	private final PatternChangeTracker patternChangeTracker;
+	private final PredictionCache predictionCache;
+	private final RouteHistoryStore routeHistoryStore;
+	private final ConfigProps props;
+	private final AtomicBoolean legacyPatternsPurged = new AtomicBoolean();
 
 	@Async
-	@Transactional
 	public void ingestData(MultipartFile file, String dataType) {
 		log.info("Starting data ingestion for type: {}", dataType);
 
@@ -63,283 +76,206 @@ public class DataIngestionService {
 	}
 
 	private void ingestFlightData(MultipartFile file) throws Exception {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()));
-		String line;
-		boolean isFirstLine = true;
-
-		while ((line = reader.readLine()) != null) {
-			if (isFirstLine) {
-				isFirstLine = false;
-				continue; // Skip header
-			}
+		int batchSize = props.getIngestion().getBatchSize();
+		var load = flightBulkWriter.begin();
+		var batch = new ArrayList<FlightRow>(batchSize);
+		Path spooled = flightCsvReader.spool(file);
 
-			String[] parts = line.split(",");
-			if (parts.length < 10) continue;
-
-			// Parse flight data
-			String flightNumber = parts[0];
-			String airlineCode = parts[1];
-			String originCode = parts[2];
-			String destCode = parts[3];
-			LocalDateTime scheduledDep = LocalDateTime.parse(parts[4], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-			LocalDateTime actualDep = LocalDateTime.parse(parts[5], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-			int delayMinutes = Integer.parseInt(parts[6]);
-			String status = parts[7];
-			String delayReason = parts[8];
-			String aircraftType = parts[9];
-
-			// Get or create entities
-			Airline airline = airlineRepository.findByCode(airlineCode)
-					.orElseGet(() -> {
-						Airline newAirline = Airline.builder()
-								.code(airlineCode)
-								.name(airlineCode + " Airlines")
-								.build();
-						return airlineRepository.save(newAirline);
-					});
-
-			Airport origin = airportRepository.findByCode(originCode)
-					.orElseGet(() -> {
-						Airport newAirport = Airport.builder()
-								.code(originCode)
-								.name(originCode + " Airport")
-								.city(originCode)
-								.country("USA")
-								.build();
-						return airportRepository.save(newAirport);
-					});
-
-			Airport destination = airportRepository.findByCode(destCode)
-					.orElseGet(() -> {
-						Airport newAirport = Airport.builder()
-								.code(destCode)
-								.name(destCode + " Airport")
-								.city(destCode)
-								.country("USA")
-								.build();
-						return airportRepository.save(newAirport);
-					});
-
-			// Create flight
-			Flight flight = Flight.builder()
-					.flightNumber(flightNumber)
-					.airline(airline)
-					.origin(origin)
-					.destination(destination)
-					.scheduledDeparture(scheduledDep)
-					.actualDeparture(actualDep)
-					.delayMinutes(delayMinutes)
-					.status(FlightStatus.valueOf(status))
-					.delayReason(delayReason)
-					.aircraftType(aircraftType)
-					.build();
-
-			flightRepository.save(flight);
-
-			// Create embedding for this flight
-			createFlightEmbedding(flight);
+		try {
+			flightCsvReader.read(spooled, rows -> {
+				for (FlightRow row : rows) {
+					batch.add(row);
+					if (batch.size() >= batchSize) {
+						writeFlightBatch(load, batch);
+						batch.clear();
+					}
+				}
+			});
+			writeFlightBatch(load, batch);
+		}
+		finally {
+			Files.deleteIfExists(spooled);
 		}
 
-		log.info("Flight data ingestion completed");
+		log.info("Flight data ingestion completed: {} flights at {} rows/sec", load.rows(), Math.round(load.rowsPerSecond()));
 	}
 
-	private void createFlightEmbedding(Flight flight) {
-		String content = String.format(
-				"Flight %s by %s from %s to %s on %s. Delay: %d minutes. Status: %s. Reason: %s",
-				flight.getFlightNumber(),
-				flight.getAirline().getName(),
-				flight.getOrigin().getCode(),
-				flight.getDestination().getCode(),
-				flight.getScheduledDeparture(),
-				flight.getDelayMinutes(),
-				flight.getStatus(),
-				flight.getDelayReason()
-		);
+	private void writeFlightBatch(FlightBulkWriter.BulkLoad load, List<FlightRow> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		// Flights stored by an earlier, partly failed run of the same file are skipped
+		var stored = load.write(batch);
+		if (stored.isEmpty()) {
+			return;
+		}
+		routeHistoryStore.append(stored, load.airlines());
+		patternChangeTracker.record(stored);
+		predictionCache.invalidateRoutes(stored.stream().map(FlightRow::route).collect(Collectors.toSet()));
 
-		// Add to vector store
-		vectorStoreService.addDocuments(
-				List.of(content),
-				Map.of(
+		// Create embeddings for this batch
+		createFlightEmbeddings(load, stored);
+	}
+
+	private void createFlightEmbeddings(FlightBulkWriter.BulkLoad load, List<FlightRow> batch) {
+		List<Document> documents = batch.stream()
+				.map(flight -> new Document(String.format(
+						"Flight %s by %s from %s to %s on %s. Delay: %d minutes. Status: %s. Reason: %s",
+						flight.flightNumber(),
+						load.airline(flight.airlineCode()).getName(),
+						flight.originCode(),
+						flight.destinationCode(),
+						flight.scheduledDeparture(),
+						flight.delayMinutes(),
+						flight.status(),
+						flight.delayReason()
+				), Map.of(
 						"type", "flight",
-						"flightId", flight.getId(),
-						"airline", flight.getAirline().getCode(),
-						"route", flight.getOrigin().getCode() + "-" + flight.getDestination().getCode()
-				)
-		);
+						"flightId", flight.id(),
+						"airline", flight.airlineCode(),
+						"route", flight.route()
+				)))
+				.toList();
+
+		// Hand off to the embedding workers; relational ingestion does not wait on the embedding model
+		embeddingPipeline.submit(documents);
 	}
 
 	@Async
-	public void processEmbeddings() {
-		log.info("Starting embedding processing");
+	public void processEmbeddings(boolean full) {
+		log.info("Starting embedding processing (full: {})", full);
 
-		try {
-			// Process historical patterns
-			processHistoricalPatterns();
+		int requeued = embeddingPipeline.retryFailed();
+		if (requeued > 0) {
+			log.info("Queued {} flight documents again whose embedding failed earlier", requeued);
+		}
 
-			// Process route-specific patterns
-			processRoutePatterns();
+		Set<String> touched = full ? Set.of() : patternChangeTracker.drain();
+		if (!full && touched.isEmpty()) {
+			// The tracker only knows about ingestion since startup, not seeded data or batches before a restart
+			log.info("No tracked pattern changes; falling back to a full pattern refresh");
+		}
 
-			// Process airline performance patterns
-			processAirlinePatterns();
+		try {
+			if (!legacyPatternsPurged.get()) {
+				vectorStoreService.deleteLegacyPatterns();
+				legacyPatternsPurged.set(true);
+			}
+			// Hourly, route and airline patterns from set-based aggregates
+			int refreshed = processPatterns(touched);
 
-			log.info("Embedding processing completed");
+			log.info("Embedding processing completed: {} pattern documents refreshed", refreshed);
 		}
 		catch (Exception e) {
+			patternChangeTracker.restore(touched);
 			log.error("Error processing embeddings", e);
 		}
 	}
 
-	private void processHistoricalPatterns() {
-		// Analyze patterns by time of day
-		Map<Integer, List<Flight>> flightsByHour = flightRepository.findAll().stream()
-				.collect(Collectors.groupingBy(f -> f.getScheduledDeparture().getHour()));
-
-		for (Map.Entry<Integer, List<Flight>> entry : flightsByHour.entrySet()) {
-			int hour = entry.getKey();
-			List<Flight> flights = entry.getValue();
-
-			double avgDelay = flights.stream()
-					.mapToInt(Flight::getDelayMinutes)
-					.average()
-					.orElse(0.0);
-
-			String pattern = String.format(
+	/**
+	 * Refreshes the pattern documents for the touched keys, or every pattern when none are given.
+	 */
+	private int processPatterns(Set<String> touched) {
+		LocalDateTime until = LocalDateTime.now();
+		LocalDateTime since = until.minusYears(1);
+		boolean all = touched.isEmpty();
+		String hours = keyValues(touched, PatternKey.HOURLY);
+		String routes = keyValues(touched, PatternKey.ROUTE);
+		String airlines = keyValues(touched, PatternKey.AIRLINE);
+		Predicate<String> refresh = all ? key -> true : touched::contains;
+
+		Map<String, String> topReasons = flightRepository.findTopDelayReasons(since, until, all, hours, routes, airlines).stream()
+				.collect(Collectors.groupingBy(FlightRepository.PatternReason::key,
+						Collectors.mapping(FlightRepository.PatternReason::getReason, Collectors.joining(", "))));
+
+		var routeAirlineDelays = flightRepository.findRouteAirlineDelays(since, until, all, hours, routes, airlines);
+		Map<String, String> bestAirlineByRoute = routeAirlineDelays.stream()
+				.collect(Collectors.groupingBy(d -> d.getOrigin() + "-" + d.getDestination(),
+						Collectors.collectingAndThen(
+								Collectors.minBy(Comparator.comparing(FlightRepository.RouteAirlineDelay::getAvgDelay)),
+								d -> d.map(FlightRepository.RouteAirlineDelay::getAirlineName).orElse("Unknown"))));
+		Map<String, String> topRoutesByAirline = routeAirlineDelays.stream()
+				.collect(Collectors.groupingBy(FlightRepository.RouteAirlineDelay::getAirline,
+						Collectors.collectingAndThen(Collectors.toList(), delays -> delays.stream()
+								.sorted(Comparator.comparing(FlightRepository.RouteAirlineDelay::getAvgDelay))
+								.limit(3)
+								.map(d -> d.getOrigin() + "-" + d.getDestination())
+								.collect(Collectors.joining(", ")))));
+
+		Map<String, Airline> airlines = airlineRepository.findAll().stream()
+				.collect(Collectors.toMap(Airline::getCode, Function.identity()));
+
+		List<Document> documents = new ArrayList<>();
+		List<Airline> updatedAirlines = new ArrayList<>();
+		for (FlightRepository.PatternStats stats : flightRepository.findPatternStats(since, until,
+				props.getAcceptableDelayMinutes(), all, hours, routes, airlines)) {
+			String key = stats.key();
+			if (!refresh.test(key)) continue;
+
+			String reasons = topReasons.getOrDefault(key, "");
+			switch (stats.getCategory()) {
+			case "hourly" -> documents.add(new Document(patternId(key), String.format(
 					"Flights departing at %d:00 hours have an average delay of %.1f minutes based on %d flights. " +
 							"Peak delay reasons: %s",
-					hour, avgDelay, flights.size(),
-					getTopDelayReasons(flights)
-			);
-
-			vectorStoreService.addDocuments(
-					List.of(pattern),
-					Map.of("type", "pattern", "category", "hourly", "hour", hour)
-			);
-		}
-	}
-
-	private void processRoutePatterns() {
-		// Get all unique routes
-		List<Object[]> routes = flightRepository.findAll().stream()
-				.map(f -> new Object[] {f.getOrigin().getCode(), f.getDestination().getCode()})
-				.distinct()
-				.toList();
-
-		for (Object[] route : routes) {
-			String origin = (String) route[0];
-			String destination = (String) route[1];
-
-			List<Flight> routeFlights = flightRepository.findByRoute(
-					origin, destination,
-					LocalDateTime.now().minusYears(1),
-					LocalDateTime.now()
-			);
-
-			if (routeFlights.isEmpty()) continue;
-
-			double avgDelay = routeFlights.stream()
-					.mapToInt(Flight::getDelayMinutes)
-					.average()
-					.orElse(0.0);
-
-			long cancelledCount = routeFlights.stream()
-					.filter(f -> f.getStatus() == FlightStatus.CANCELLED)
-					.count();
-
-			String pattern = String.format(
-					"Route %s to %s: Average delay %.1f minutes, %.1f%% cancellation rate, %d total flights. " +
-							"Best performing airline: %s. Common issues: %s",
-					origin, destination, avgDelay,
-					(cancelledCount * 100.0) / routeFlights.size(),
-					routeFlights.size(),
-					getBestAirlineForRoute(routeFlights),
-					getTopDelayReasons(routeFlights)
-			);
-
-			vectorStoreService.addDocuments(
-					List.of(pattern),
-					Map.of("type", "pattern", "category", "route", "route", origin + "-" + destination)
-			);
-		}
-	}
-
-	private void processAirlinePatterns() {
-		List<Airline> airlines = airlineRepository.findAll();
-
-		for (Airline airline : airlines) {
-			List<Flight> airlineFlights = flightRepository.findByAirlineAndDateRange(
-					airline.getCode(),
-					LocalDateTime.now().minusYears(1),
-					LocalDateTime.now()
-			);
-
-			if (airlineFlights.isEmpty()) continue;
-
-			double avgDelay = airlineFlights.stream()
-					.mapToInt(Flight::getDelayMinutes)
-					.average()
-					.orElse(0.0);
-
-			long onTimeCount = airlineFlights.stream()
-					.filter(f -> f.getDelayMinutes() <= 15)
-					.count();
-
-			// Update airline statistics
-			airline.setAverageDelay(avgDelay);
-			airline.setOnTimePerformance((onTimeCount * 100.0) / airlineFlights.size());
-			airline.setTotalFlights(airlineFlights.size());
-			airline.setDelayedFlights((int) (airlineFlights.size() - onTimeCount));
-			airlineRepository.save(airline);
-
-			String pattern = String.format(
-					"%s airline performance: %.1f%% on-time, average delay %.1f minutes. " +
-							"Total flights: %d. Common delay reasons: %s. " +
-							"Best performing routes: %s",
-					airline.getName(),
-					airline.getOnTimePerformance(),
-					avgDelay,
-					airlineFlights.size(),
-					getTopDelayReasons(airlineFlights),
-					getTopRoutesForAirline(airlineFlights)
-			);
-
-			vectorStoreService.addDocuments(
-					List.of(pattern),
-					Map.of("type", "pattern", "category", "airline", "airline", airline.getCode())
-			);
+					stats.getHour(), stats.getAvgDelay(), stats.getTotal(), reasons
+			), Map.of("type", "pattern", "category", "hourly", "hour", stats.getHour())));
+			case "route" -> {
+				String route = stats.getOrigin() + "-" + stats.getDestination();
+				documents.add(new Document(patternId(key), String.format(
+						"Route %s to %s: Average delay %.1f minutes, %.1f%% cancellation rate, %d total flights. " +
+								"Best performing airline: %s. Common issues: %s",
+						stats.getOrigin(), stats.getDestination(), stats.getAvgDelay(),
+						(stats.getCancelled() * 100.0) / stats.getTotal(),
+						stats.getTotal(),
+						bestAirlineByRoute.getOrDefault(route, "Unknown"),
+						reasons
+				), Map.of("type", "pattern", "category", "route", "route", route)));
+			}
+			case "airline" -> {
+				Airline airline = airlines.get(stats.getAirline());
+				if (airline == null) continue;
+
+				// Update airline statistics
+				airline.setAverageDelay(stats.getAvgDelay());
+				airline.setOnTimePerformance((stats.getOnTime() * 100.0) / stats.getTotal());
+				airline.setTotalFlights(stats.getTotal().intValue());
+				airline.setDelayedFlights((int) (stats.getTotal() - stats.getOnTime()));
+				updatedAirlines.add(airline);
+
+				documents.add(new Document(patternId(key), String.format(
+						"%s airline performance: %.1f%% on-time, average delay %.1f minutes. " +
+								"Total flights: %d. Common delay reasons: %s. " +
+								"Best performing routes: %s",
+						airline.getName(),
+						airline.getOnTimePerformance(),
+						stats.getAvgDelay(),
+						stats.getTotal(),
+						reasons,
+						topRoutesByAirline.getOrDefault(airline.getCode(), "")
+				), Map.of("type", "pattern", "category", "airline", "airline", airline.getCode())));
+			}
+			default -> log.warn("Unknown pattern category: {}", stats.getCategory());
+			}
 		}
-	}
 
-	private String getTopDelayReasons(List<Flight> flights) {
-		return flights.stream()
-				.filter(f -> f.getDelayReason() != null && !f.getDelayReason().isEmpty())
-				.collect(Collectors.groupingBy(Flight::getDelayReason, Collectors.counting()))
-				.entrySet().stream()
-				.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-				.limit(3)
-				.map(Map.Entry::getKey)
-				.collect(Collectors.joining(", "));
+		airlineRepository.saveAll(updatedAirlines);
+		// Stable ids make the vector store replace the previous version of each pattern in place
+		vectorStoreService.addDocuments(documents);
+		return documents.size();
 	}
 
-	private String getBestAirlineForRoute(List<Flight> flights) {
-		return flights.stream()
-				.collect(Collectors.groupingBy(f -> f.getAirline().getName(),
-						Collectors.averagingInt(Flight::getDelayMinutes)))
-				.entrySet().stream()
-				.min(Map.Entry.comparingByValue())
-				.map(Map.Entry::getKey)
-				.orElse("Unknown");
+	/**
+	 * Comma-separated values of the keys with the given prefix, e.g. {@code JFK-LAX} for {@code route:JFK-LAX}.
+	 */
+	private static String keyValues(Set<String> keys, String prefix) {
+		return keys.stream()
+				.filter(key -> key.startsWith(prefix))
+				.map(key -> key.substring(prefix.length()))
+				.collect(Collectors.joining(","));
 	}
 
-	private String getTopRoutesForAirline(List<Flight> flights) {
-		return flights.stream()
-				.collect(Collectors.groupingBy(
-						f -> f.getOrigin().getCode() + "-" + f.getDestination().getCode(),
-						Collectors.averagingInt(Flight::getDelayMinutes)))
-				.entrySet().stream()
-				.sorted(Map.Entry.comparingByValue())
-				.limit(3)
-				.map(Map.Entry::getKey)
-				.collect(Collectors.joining(", "));
+	private String patternId(String key) {
+		return UUID.nameUUIDFromBytes(("pattern:" + key).getBytes(StandardCharsets.UTF_8)).toString();
 	}
 
 	private void ingestWeatherData(MultipartFile file) throws Exception {
@@ -0,0 +1,188 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.stereotype.Service;
+
+/**
+ * Embeds documents off the ingestion path. Producers enqueue into a bounded queue (blocking when it is full),
+ * and a fixed number of workers drain it in batches of {@code prediction.vector.batch-size}, each batch being one
+ * embedding call followed by a bulk insert into the vector table. A failing batch is retried with exponential backoff;
+ * after the last attempt its documents are kept, up to the queue capacity, until {@link #retryFailed()} queues them again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingPipeline {
+
+	private final VectorStore vectorStore;
+	private final VectorStoreService vectorStoreService;
+	private final ConfigProps props;
+
+	private BlockingQueue<Document> queue;
+	private ExecutorService workers;
+	private volatile boolean running;
+	private final Deque<Document> failed = new ArrayDeque<>();
+	private final LongAdder embedded = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	@PostConstruct
+	void start() {
+		var vector = props.getVector();
+		queue = new LinkedBlockingQueue<>(vector.getQueueCapacity());
+		workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("embedding-", 0).factory());
+		running = true;
+		for (int i = 0; i < vector.getEmbeddingWorkers(); i++) {
+			workers.submit(this::drain);
+		}
+	}
+
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		workers.shutdown();
+		if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.warn("Embedding pipeline stopped with {} documents still queued", queue.size());
+			workers.shutdownNow();
+		}
+	}
+
+	public void submit(List<Document> documents) {
+		try {
+			for (Document document : documents) {
+				queue.put(document);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing documents for embedding", e);
+		}
+	}
+
+	public int pending() {
+		return queue.size();
+	}
+
+	/**
+	 * Queues the documents whose batches failed every attempt again and returns how many there were.
+	 */
+	public int retryFailed() {
+		List<Document> documents;
+		synchronized (failed) {
+			documents = new ArrayList<>(failed);
+			failed.clear();
+		}
+		submit(documents);
+		return documents.size();
+	}
+
+	public Stats stats() {
+		int failedDocuments;
+		synchronized (failed) {
+			failedDocuments = failed.size();
+		}
+		return Stats.builder()
+				.embedded(embedded.sum())
+				.queued(queue.size())
+				.failed(failedDocuments)
+				.dropped(dropped.sum())
+				.build();
+	}
+
+	private void drain() {
+		int batchSize = props.getVector().getBatchSize();
+		long lingerNanos = props.getVector().getFlushInterval().toNanos();
+		List<Document> batch = new ArrayList<>(batchSize);
+
+		while (running || !queue.isEmpty()) {
+			try {
+				long deadline = System.nanoTime() + lingerNanos;
+				while (batch.size() < batchSize) {
+					Document document = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (document == null) {
+						break;
+					}
+					batch.add(document);
+					queue.drainTo(batch, batchSize - batch.size());
+				}
+				if (!batch.isEmpty()) {
+					store(batch);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void store(List<Document> batch) throws InterruptedException {
+		var vector = props.getVector();
+		long backoff = vector.getEmbeddingRetryBackoff().toMillis();
+		for (int attempt = 1; ; attempt++) {
+			long start = System.nanoTime();
+			try {
+				vectorStore.add(batch);
+				vectorStoreService.clearSearchResults();
+				embedded.add(batch.size());
+				log.info("Embedded {} documents in {} ms ({} queued)", batch.size(),
+						(System.nanoTime() - start) / 1_000_000, queue.size());
+				return;
+			}
+			catch (Exception e) {
+				if (attempt > vector.getEmbeddingRetries()) {
+					keepFailed(batch, attempt, e);
+					return;
+				}
+				log.warn("Failed to embed batch of {} documents, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+				try {
+					Thread.sleep(backoff);
+				}
+				catch (InterruptedException interrupted) {
+					keepFailed(batch, attempt, e);
+					throw interrupted;
+				}
+				backoff *= 2;
+			}
+		}
+	}
+
+	private void keepFailed(List<Document> batch, int attempts, Exception cause) {
+		int kept;
+		synchronized (failed) {
+			kept = Math.max(0, Math.min(batch.size(), props.getVector().getQueueCapacity() - failed.size()));
+			failed.addAll(batch.subList(0, kept));
+		}
+		dropped.add(batch.size() - kept);
+		log.error("Failed to embed batch of {} documents after {} attempts; {} kept for retry, {} dropped", batch.size(),
+				attempts, kept, batch.size() - kept, cause);
+	}
+
+	/**
+	 * Documents embedded since startup, waiting in the queue, kept after failing every attempt, and dropped because the
+	 * failed documents already filled the queue capacity.
+	 */
+	@Builder
+	public record Stats(long embedded, int queued, int failed, long dropped) {
+	}
+}
@@ -0,0 +1,92 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process reranker: scores candidates by cosine similarity of their stored embeddings against several query
+ * views, then selects with maximal marginal relevance so that near-duplicate documents are not returned together.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmbeddingReranker {
+
+	private final ConfigProps props;
+
+	public List<Document> rerank(List<Document> candidates, Map<String, float[]> embeddings, List<float[]> queryViews, int k) {
+		var vector = props.getVector();
+		List<Document> pool = new ArrayList<>();
+		List<float[]> poolVectors = new ArrayList<>();
+		List<Double> relevance = new ArrayList<>();
+		for (Document candidate : candidates) {
+			float[] embedding = embeddings.get(candidate.getId());
+			if (embedding == null) {
+				continue;
+			}
+			pool.add(candidate);
+			poolVectors.add(embedding);
+			relevance.add(relevance(embedding, queryViews));
+		}
+
+		List<Document> selected = new ArrayList<>(k);
+		List<float[]> selectedVectors = new ArrayList<>(k);
+		boolean[] used = new boolean[pool.size()];
+		while (selected.size() < k) {
+			int best = -1;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < pool.size(); i++) {
+				if (used[i]) {
+					continue;
+				}
+				double redundancy = 0;
+				for (float[] chosen : selectedVectors) {
+					redundancy = Math.max(redundancy, cosine(poolVectors.get(i), chosen));
+				}
+				if (redundancy >= vector.getDuplicateThreshold()) {
+					used[i] = true;
+					continue;
+				}
+				double score = vector.getMmrLambda() * relevance.get(i) - (1 - vector.getMmrLambda()) * redundancy;
+				if (score > bestScore) {
+					bestScore = score;
+					best = i;
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			used[best] = true;
+			selected.add(pool.get(best));
+			selectedVectors.add(poolVectors.get(best));
+		}
+		return selected;
+	}
+
+	private static double relevance(float[] embedding, List<float[]> queryViews) {
+		if (queryViews.isEmpty()) {
+			return 0;
+		}
+		double sum = 0;
+		for (float[] view : queryViews) {
+			sum += cosine(embedding, view);
+		}
+		return sum / queryViews.size();
+	}
+
+	static double cosine(float[] a, float[] b) {
+		int n = Math.min(a.length, b.length);
+		double dot = 0, normA = 0, normB = 0;
+		for (int i = 0; i < n; i++) {
+			dot += a[i] * b[i];
+			normA += a[i] * a[i];
+			normB += b[i] * b[i];
+		}
+		return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+	}
+}
@@ -0,0 +1,78 @@
+package io.ai.agent.service;
+
+import io.ai.agent.entity.WeatherData;
+import io.ai.agent.record.AirlinePrediction;
+import io.ai.agent.record.AirlinePrediction.ReviewPath;
+import io.ai.agent.record.FlightSchedule;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import io.ai.agent.record.RouteFlight;
+import io.ai.agent.record.WeatherAnalysis;
+import io.ai.agent.repo.FlightRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Deterministic prediction path: route statistics, crew availability and rule-based weather severity fed into the
+ * statistical model. No agent planning, LLM or embedding calls, and no external weather lookups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FastPredictionService {
+
+	private final StatsPredictionService statsPredictionService;
+	private final CrewService crewService;
+	private final WeatherService weatherService;
+	private final WeatherSeverityClassifier weatherSeverityClassifier;
+	private final FlightRepository flightRepository;
+
+	public PredictionResponse predict(PredictionRequest request) {
+		var statsByAirline = statsPredictionService.routeStats(request.origin(), request.destination(), request.travelDate());
+		var scheduleByAirline = flightRepository.findRouteFlights(
+						request.origin(),
+						request.destination(),
+						request.travelDate().toLocalDate().atStartOfDay(),
+						request.travelDate().toLocalDate().atTime(23, 59, 59))
+				.stream()
+				.collect(Collectors.groupingBy(RouteFlight::airlineCode));
+		var weatherAnalysis = weatherAnalysis(request);
+		var roster = crewService.roster(statsByAirline.keySet(), request.travelDate(), request.travelDate());
+
+		var predictions = new ArrayList<AirlinePrediction>(statsByAirline.size());
+		statsByAirline.forEach((airline, flightAuxStats) -> {
+			var crewAnalysis = roster.crewAvailability(airline, request.travelDate());
+			List<FlightSchedule> schedule = scheduleByAirline.getOrDefault(airline.getCode(), Collections.emptyList()).stream()
+					.map(RouteFlight::schedule)
+					.toList();
+			predictions.add(statsPredictionService.createStatisticalPrediction(airline, flightAuxStats, weatherAnalysis, crewAnalysis)
+					.toAirlinePrediction(schedule, ReviewPath.STATISTICAL));
+		});
+		predictions.sort(AirlinePrediction.RANKING);
+
+		return PredictionResponse.builder()
+				.origin(request.origin())
+				.destination(request.destination())
+				.travelDate(request.travelDate())
+				.predictions(predictions)
+				.generatedAt(LocalDateTime.now())
+				.build();
+	}
+
+	private WeatherAnalysis weatherAnalysis(PredictionRequest request) {
+		Map<String, WeatherData> weatherByAirport = new LinkedHashMap<>();
+		for (String airport : List.of(request.origin(), request.destination())) {
+			weatherService.findStoredForecast(airport, request.travelDate()).ifPresent(w -> weatherByAirport.put(airport, w));
+		}
+		return weatherSeverityClassifier.classify(weatherByAirport);
+	}
+}
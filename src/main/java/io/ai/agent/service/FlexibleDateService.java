@@ -0,0 +1,146 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.WeatherData;
+import io.ai.agent.record.AirlinePrediction;
+import io.ai.agent.record.AirlinePrediction.ReviewPath;
+import io.ai.agent.record.CrewAnalysis;
+import io.ai.agent.record.FlexiblePredictionResponse;
+import io.ai.agent.record.FlexiblePredictionResponse.DateOption;
+import io.ai.agent.record.FlightAuxStats;
+import io.ai.agent.record.FlightSchedule;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.RouteFlight;
+import io.ai.agent.record.WeatherAnalysis;
+import io.ai.agent.repo.FlightRepository;
+import io.ai.agent.service.FlightRollupService.DailyRollup;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Ranks day/airline combinations for travelDate ± flexibilityDays on the statistical path. The daily rollup for the
+ * union of all history windows is read once and each day's window is derived by sliding over it; weather is fetched
+ * once per airport per day, and the schedule and crew duties once for the whole range.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlexibleDateService {
+
+	private final FlightRollupService flightRollupService;
+	private final FlightRepository flightRepository;
+	private final StatsPredictionService statsPredictionService;
+	private final WeatherSeverityClassifier weatherSeverityClassifier;
+	private final CrewService crewService;
+	private final WeatherService weatherService;
+	private final ConfigProps props;
+
+	public FlexiblePredictionResponse sweep(PredictionRequest request) {
+		int flexibility = Math.clamp(request.flexibilityDays() == null ? 0 : request.flexibilityDays(), 0, props.getMaxFlexibilityDays());
+		var travelTime = request.travelDate().toLocalTime();
+		LocalDate first = request.travelDate().toLocalDate().minusDays(flexibility);
+		LocalDate last = request.travelDate().toLocalDate().plusDays(flexibility);
+
+		var rollupsByAirline = flightRollupService.dailyRollups(request.origin(), request.destination(),
+						first.minusMonths(props.getHistoryPeriodMonths()), last.minusDays(1))
+				.stream()
+				.collect(Collectors.groupingBy(DailyRollup::airline, LinkedHashMap::new, Collectors.toList()));
+		var schedules = flightRepository.findRouteFlights(request.origin(), request.destination(),
+						first.atStartOfDay(), last.atTime(23, 59, 59))
+				.stream()
+				.collect(Collectors.groupingBy(f -> f.airlineCode() + "|" + f.scheduledDeparture().toLocalDate(),
+						Collectors.mapping(RouteFlight::schedule, Collectors.toList())));
+
+		Map<LocalDate, WeatherAnalysis> weatherByDay = new HashMap<>();
+		for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+			Map<String, WeatherData> weatherByAirport = new LinkedHashMap<>();
+			for (String airport : List.of(request.origin(), request.destination())) {
+				forecast(airport, day.atTime(travelTime)).ifPresent(w -> weatherByAirport.put(airport, w));
+			}
+			weatherByDay.put(day, weatherSeverityClassifier.classify(weatherByAirport));
+		}
+
+		var roster = crewService.roster(rollupsByAirline.keySet(), first.atTime(travelTime), last.atTime(travelTime));
+
+		List<DateOption> options = new ArrayList<>();
+		rollupsByAirline.forEach((airline, rollups) -> {
+			var window = new Window();
+			int head = 0;
+			int tail = 0;
+			for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+				// Slide [day - history, day - 1] forward: admit newly covered dates, retire expired ones
+				while (head < rollups.size() && rollups.get(head).serviceDate().isBefore(day)) {
+					window.add(rollups.get(head++), 1);
+				}
+				LocalDate windowStart = day.minusMonths(props.getHistoryPeriodMonths());
+				while (tail < head && rollups.get(tail).serviceDate().isBefore(windowStart)) {
+					window.add(rollups.get(tail++), -1);
+				}
+				if (window.flights == 0) {
+					continue;
+				}
+				var departure = day.atTime(travelTime);
+				options.add(new DateOption(day, predict(airline, window.stats(), weatherByDay.get(day),
+						roster.crewAvailability(airline, departure), schedules.getOrDefault(airline.getCode() + "|" + day, List.of()))));
+			}
+		});
+		options.sort(Comparator.comparing(DateOption::prediction, AirlinePrediction.RANKING));
+
+		return FlexiblePredictionResponse.builder()
+				.origin(request.origin())
+				.destination(request.destination())
+				.travelDate(request.travelDate())
+				.flexibilityDays(flexibility)
+				.options(options)
+				.generatedAt(LocalDateTime.now())
+				.build();
+	}
+
+	private AirlinePrediction predict(Airline airline, FlightAuxStats stats, WeatherAnalysis weatherAnalysis,
+			CrewAnalysis crewAnalysis, List<FlightSchedule> schedule) {
+		return statsPredictionService.createStatisticalPrediction(airline, stats, weatherAnalysis, crewAnalysis)
+				.toAirlinePrediction(schedule, ReviewPath.STATISTICAL);
+	}
+
+	private Optional<WeatherData> forecast(String airport, LocalDateTime dateTime) {
+		try {
+			return Optional.ofNullable(weatherService.getWeatherForecast(airport, dateTime));
+		}
+		catch (Exception e) {
+			log.warn("Weather unavailable for {} at {}: {}", airport, dateTime, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	private static final class Window {
+		long flights;
+		long delaySum;
+		long onTime;
+		long cancelled;
+
+		void add(DailyRollup rollup, int sign) {
+			flights += sign * rollup.flights();
+			delaySum += sign * rollup.delaySum();
+			onTime += sign * rollup.onTime();
+			cancelled += sign * rollup.cancelled();
+		}
+
+		FlightAuxStats stats() {
+			return new FlightAuxStats((double) delaySum / flights, (onTime * 100.0) / flights, (cancelled * 100.0) / flights,
+					"", (int) flights);
+		}
+	}
+}
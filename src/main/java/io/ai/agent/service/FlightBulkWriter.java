@@ -0,0 +1,204 @@
+package io.ai.agent.service;
+
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.Airport;
+import io.ai.agent.record.FlightRow;
+import io.ai.agent.repo.AirlineRepository;
+import io.ai.agent.repo.AirportRepository;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams parsed flight rows into the {@code flight} table with PostgreSQL {@code COPY}, one transaction per batch.
+ * Rows are copied into a temporary staging table and moved into {@code flight} skipping ids that are already stored, so
+ * a file that failed part way can simply be ingested again. The daily rollup and incident index are updated in the same
+ * transaction, for the newly stored rows only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlightBulkWriter {
+
+	private static final String CREATE_STAGING = """
+			CREATE TEMPORARY TABLE IF NOT EXISTS flight_staging (LIKE flight INCLUDING DEFAULTS) ON COMMIT DELETE ROWS""";
+	private static final String COPY_FLIGHTS = """
+			COPY flight_staging (id, flight_number, airline_id, origin_id, destination_id, scheduled_departure,
+			actual_departure, delay_minutes, status, delay_reason, aircraft_type) FROM STDIN WITH (FORMAT csv)""";
+	private static final String INSERT_STAGED = """
+			INSERT INTO flight (id, flight_number, airline_id, origin_id, destination_id, scheduled_departure, actual_departure,
+				delay_minutes, status, delay_reason, aircraft_type)
+			SELECT id, flight_number, airline_id, origin_id, destination_id, scheduled_departure, actual_departure,
+				delay_minutes, status, delay_reason, aircraft_type
+			FROM flight_staging
+			ON CONFLICT (id) DO NOTHING
+			RETURNING id""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final AirlineRepository airlineRepository;
+	private final AirportRepository airportRepository;
+	private final FlightRollupService flightRollupService;
+
+	public BulkLoad begin() {
+		return new BulkLoad();
+	}
+
+	/**
+	 * A single ingestion run. Airline and airport codes are resolved once and cached for the rest of the load.
+	 */
+	public class BulkLoad {
+
+		private final Map<String, Airline> airlines = new HashMap<>();
+		private final Map<String, Airport> airports = new HashMap<>();
+		private final long startNanos = System.nanoTime();
+		private long rows;
+
+		/**
+		 * Writes the batch and returns the rows that were newly stored, without those already in {@code flight} and
+		 * without repeats of a flight within the batch.
+		 */
+		public List<FlightRow> write(List<FlightRow> batch) {
+			if (batch.isEmpty()) {
+				return List.of();
+			}
+			long batchStart = System.nanoTime();
+			// Codes created in this transaction join the run cache only after it commits
+			Map<String, Airline> newAirlines = new HashMap<>();
+			Map<String, Airport> newAirports = new HashMap<>();
+			List<FlightRow> stored = transactionTemplate.execute(status -> {
+				resolveAirlines(batch, newAirlines);
+				resolveAirports(batch, newAirports);
+				jdbcTemplate.execute(CREATE_STAGING);
+				jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+					try {
+						return con.unwrap(PGConnection.class).getCopyAPI()
+								.copyIn(COPY_FLIGHTS, new StringReader(toCsv(batch, newAirlines, newAirports)));
+					}
+					catch (IOException e) {
+						throw new IllegalStateException("COPY into flight_staging failed", e);
+					}
+				});
+				Set<UUID> inserted = new HashSet<>(jdbcTemplate.queryForList(INSERT_STAGED, UUID.class));
+				List<FlightRow> newRows = batch.stream().filter(f -> inserted.remove(f.id())).toList();
+				if (!newRows.isEmpty()) {
+					flightRollupService.apply(newRows, code -> airline(code, newAirlines).getId(),
+							code -> airport(code, newAirports).getId());
+				}
+				return newRows;
+			});
+			airlines.putAll(newAirlines);
+			airports.putAll(newAirports);
+			List<FlightRow> written = stored == null ? List.of() : stored;
+			rows += written.size();
+			log.info("Stored {} of {} flights in {} ms ({} rows total, {} rows/sec)", written.size(), batch.size(),
+					(System.nanoTime() - batchStart) / 1_000_000, rows, Math.round(rowsPerSecond()));
+			return written;
+		}
+
+		public Airline airline(String code) {
+			return airlines.get(code);
+		}
+
+		public Map<String, Airline> airlines() {
+			return Collections.unmodifiableMap(airlines);
+		}
+
+		public long rows() {
+			return rows;
+		}
+
+		public double rowsPerSecond() {
+			double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+			return seconds == 0 ? 0.0 : rows / seconds;
+		}
+
+		private Airline airline(String code, Map<String, Airline> newAirlines) {
+			var airline = airlines.get(code);
+			return airline != null ? airline : newAirlines.get(code);
+		}
+
+		private Airport airport(String code, Map<String, Airport> newAirports) {
+			var airport = airports.get(code);
+			return airport != null ? airport : newAirports.get(code);
+		}
+
+		private void resolveAirlines(List<FlightRow> batch, Map<String, Airline> newAirlines) {
+			Set<String> missing = batch.stream()
+					.map(FlightRow::airlineCode)
+					.filter(code -> !airlines.containsKey(code))
+					.collect(Collectors.toSet());
+			if (missing.isEmpty()) {
+				return;
+			}
+			airlineRepository.findByCodeIn(missing).forEach(a -> newAirlines.put(a.getCode(), a));
+			missing.stream()
+					.filter(code -> !newAirlines.containsKey(code))
+					.forEach(code -> newAirlines.put(code, airlineRepository.saveAndFlush(Airline.builder()
+							.code(code)
+							.name(code + " Airlines")
+							.build())));
+		}
+
+		private void resolveAirports(List<FlightRow> batch, Map<String, Airport> newAirports) {
+			Set<String> missing = batch.stream()
+					.flatMap(f -> Stream.of(f.originCode(), f.destinationCode()))
+					.filter(code -> !airports.containsKey(code))
+					.collect(Collectors.toSet());
+			if (missing.isEmpty()) {
+				return;
+			}
+			airportRepository.findByCodeIn(missing).forEach(a -> newAirports.put(a.getCode(), a));
+			missing.stream()
+					.filter(code -> !newAirports.containsKey(code))
+					.forEach(code -> newAirports.put(code, airportRepository.saveAndFlush(Airport.builder()
+							.code(code)
+							.name(code + " Airport")
+							.city(code)
+							.country("USA")
+							.build())));
+		}
+
+		private String toCsv(List<FlightRow> batch, Map<String, Airline> newAirlines, Map<String, Airport> newAirports) {
+			StringBuilder csv = new StringBuilder(batch.size() * 160);
+			for (FlightRow f : batch) {
+				csv.append(f.id()).append(',');
+				appendQuoted(csv, f.flightNumber()).append(',');
+				csv.append(airline(f.airlineCode(), newAirlines).getId()).append(',');
+				csv.append(airport(f.originCode(), newAirports).getId()).append(',');
+				csv.append(airport(f.destinationCode(), newAirports).getId()).append(',');
+				csv.append(Objects.toString(f.scheduledDeparture(), "")).append(',');
+				csv.append(Objects.toString(f.actualDeparture(), "")).append(',');
+				csv.append(f.delayMinutes()).append(',');
+				csv.append(f.status().name()).append(',');
+				appendQuoted(csv, f.delayReason()).append(',');
+				appendQuoted(csv, f.aircraftType()).append('\n');
+			}
+			return csv.toString();
+		}
+
+		private StringBuilder appendQuoted(StringBuilder csv, String value) {
+			if (value == null) {
+				return csv;
+			}
+			return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightRow;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Parses flight CSV files by memory-mapping them, splitting them into line-aligned chunks and parsing the chunks in
+ * parallel. Parsed chunks are handed to the consumer in file order, with at most one chunk per worker in flight.
+ * <p>
+ * Expected columns: flightNumber, airlineCode, origin, destination, scheduledDeparture, actualDeparture,
+ * delayMinutes, status, delayReason, aircraftType. Fields may be double-quoted, with {@code ""} for a literal quote,
+ * but may not span lines. Lines end in LF or CRLF; the last line may omit its line break.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlightCsvReader {
+
+	private static final int FIELDS = 10;
+	private static final FlightStatus[] STATUSES = FlightStatus.values();
+
+	private final ConfigProps props;
+	private ForkJoinPool pool;
+
+	@PreDestroy
+	void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	public Path spool(MultipartFile file) throws IOException {
+		Path path = Files.createTempFile("flight-ingest-", ".csv");
+		file.transferTo(path);
+		return path;
+	}
+
+	public long read(Path path, Consumer<List<FlightRow>> consumer) throws IOException {
+		var forkJoinPool = pool();
+		long rows = 0;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			Deque<ForkJoinTask<List<FlightRow>>> inFlight = new ArrayDeque<>();
+			for (long[] chunk : chunks(channel)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+				inFlight.add(forkJoinPool.submit(() -> parseChunk(buffer)));
+				if (inFlight.size() >= forkJoinPool.getParallelism()) {
+					List<FlightRow> parsed = inFlight.poll().join();
+					rows += parsed.size();
+					consumer.accept(parsed);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				List<FlightRow> parsed = inFlight.poll().join();
+				rows += parsed.size();
+				consumer.accept(parsed);
+			}
+		}
+		return rows;
+	}
+
+	private synchronized ForkJoinPool pool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(props.getIngestion().getParallelism());
+		}
+		return pool;
+	}
+
+	/**
+	 * Splits the file into [start, end) ranges of roughly {@code chunk-size} bytes, each ending just after a newline.
+	 * The header line is excluded from the first chunk.
+	 */
+	private List<long[]> chunks(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long chunkSize = props.getIngestion().getChunkSize().toBytes();
+		List<long[]> chunks = new ArrayList<>();
+		long start = nextLine(channel, 0, size);
+		while (start < size) {
+			long end = start + chunkSize >= size ? size : nextLine(channel, start + chunkSize, size);
+			chunks.add(new long[] {start, end});
+			start = end;
+		}
+		return chunks;
+	}
+
+	private long nextLine(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer scan = ByteBuffer.allocate(8192);
+		long pos = from;
+		while (pos < size) {
+			scan.clear();
+			int read = channel.read(scan, pos);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (scan.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return size;
+	}
+
+	private List<FlightRow> parseChunk(ByteBuffer buffer) {
+		int limit = buffer.limit();
+		List<FlightRow> rows = new ArrayList<>(limit / 96);
+		int[] starts = new int[FIELDS];
+		int[] ends = new int[FIELDS];
+		boolean[] quoted = new boolean[FIELDS];
+		byte[] scratch = new byte[512];
+
+		int lineStart = 0;
+		while (lineStart < limit) {
+			int lineEnd = lineStart;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+
+			int field = 0;
+			boolean inQuotes = false;
+			starts[0] = lineStart;
+			for (int i = lineStart; i < contentEnd && field < FIELDS; i++) {
+				byte b = buffer.get(i);
+				if (b == '"') {
+					inQuotes = !inQuotes;
+				}
+				else if (b == ',' && !inQuotes) {
+					ends[field++] = i;
+					if (field < FIELDS) {
+						starts[field] = i + 1;
+					}
+				}
+			}
+			if (field < FIELDS) {
+				ends[field++] = contentEnd;
+			}
+			for (int f = 0; f < field; f++) {
+				quoted[f] = ends[f] - starts[f] >= 2 && buffer.get(starts[f]) == '"' && buffer.get(ends[f] - 1) == '"';
+				if (quoted[f]) {
+					starts[f]++;
+					ends[f]--;
+				}
+			}
+
+			if (field == FIELDS) {
+				String flightNumber = text(buffer, starts[0], ends[0], quoted[0], scratch);
+				String airlineCode = text(buffer, starts[1], ends[1], quoted[1], scratch);
+				LocalDateTime scheduledDeparture = dateTime(buffer, starts[4], ends[4], scratch);
+				rows.add(FlightRow.builder()
+						.id(flightId(airlineCode, flightNumber, scheduledDeparture))
+						.flightNumber(flightNumber)
+						.airlineCode(airlineCode)
+						.originCode(text(buffer, starts[2], ends[2], quoted[2], scratch))
+						.destinationCode(text(buffer, starts[3], ends[3], quoted[3], scratch))
+						.scheduledDeparture(scheduledDeparture)
+						.actualDeparture(dateTime(buffer, starts[5], ends[5], scratch))
+						.delayMinutes(integer(buffer, starts[6], ends[6]))
+						.status(status(buffer, starts[7], ends[7], scratch))
+						.delayReason(text(buffer, starts[8], ends[8], quoted[8], scratch))
+						.aircraftType(text(buffer, starts[9], ends[9], quoted[9], scratch))
+						.build());
+			}
+			lineStart = lineEnd + 1;
+		}
+		return rows;
+	}
+
+	/**
+	 * Name-based id of a flight, so that ingesting a file again maps its rows onto the flights already stored.
+	 */
+	private static UUID flightId(String airlineCode, String flightNumber, LocalDateTime scheduledDeparture) {
+		return UUID.nameUUIDFromBytes(("flight:" + airlineCode + "|" + flightNumber + "|" + scheduledDeparture)
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String text(ByteBuffer buffer, int start, int end, byte[] scratch) {
+		int length = end - start;
+		byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+		buffer.get(start, bytes, 0, length);
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	private static String text(ByteBuffer buffer, int start, int end, boolean quoted, byte[] scratch) {
+		String text = text(buffer, start, end, scratch);
+		return quoted ? text.replace("\"\"", "\"") : text;
+	}
+
+	private static int integer(ByteBuffer buffer, int start, int end) {
+		if (start == end) {
+			throw new NumberFormatException("Empty integer field");
+		}
+		boolean negative = buffer.get(start) == '-';
+		int value = 0;
+		for (int i = negative ? start + 1 : start; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Invalid integer at offset " + i);
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Unsigned decimal of exactly {@code count} digits.
+	 */
+	private static int digits(ByteBuffer buffer, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new DateTimeException("Invalid date-time digit at offset " + i);
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Fast path for {@code yyyy-MM-ddTHH:mm[:ss]}, also with a space instead of {@code T}; anything else goes through
+	 * {@link LocalDateTime#parse}.
+	 */
+	private static LocalDateTime dateTime(ByteBuffer buffer, int start, int end, byte[] scratch) {
+		int length = end - start;
+		if ((length == 16 || length == 19)
+				&& buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-'
+				&& (buffer.get(start + 10) == 'T' || buffer.get(start + 10) == ' ')
+				&& buffer.get(start + 13) == ':' && (length == 16 || buffer.get(start + 16) == ':')) {
+			return LocalDateTime.of(
+					digits(buffer, start, 4),
+					digits(buffer, start + 5, 2),
+					digits(buffer, start + 8, 2),
+					digits(buffer, start + 11, 2),
+					digits(buffer, start + 14, 2),
+					length == 19 ? digits(buffer, start + 17, 2) : 0);
+		}
+		return LocalDateTime.parse(text(buffer, start, end, scratch));
+	}
+
+	private static FlightStatus status(ByteBuffer buffer, int start, int end, byte[] scratch) {
+		int length = end - start;
+		for (FlightStatus status : STATUSES) {
+			String name = status.name();
+			if (name.length() == length && matches(buffer, start, name)) {
+				return status;
+			}
+		}
+		return FlightStatus.valueOf(text(buffer, start, end, scratch));
+	}
+
+	private static boolean matches(ByteBuffer buffer, int start, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			if (buffer.get(start + i) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,257 @@
+package io.ai.agent.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightAuxStats;
+import io.ai.agent.record.FlightRow;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains {@code flight_daily_rollup} and {@code flight_incident} on ingestion and answers route statistics from
+ * them, so a prediction never has to scan the flight history.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightRollupService {
+
+	private static final String UPSERT_ROLLUP = """
+			INSERT INTO flight_daily_rollup (origin_id, destination_id, airline_id, service_date, flight_count, delay_sum,
+				on_time_count, cancelled_count, delay_reasons)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS JSONB))
+			ON CONFLICT (origin_id, destination_id, airline_id, service_date) DO UPDATE SET
+				flight_count = flight_daily_rollup.flight_count + EXCLUDED.flight_count,
+				delay_sum = flight_daily_rollup.delay_sum + EXCLUDED.delay_sum,
+				on_time_count = flight_daily_rollup.on_time_count + EXCLUDED.on_time_count,
+				cancelled_count = flight_daily_rollup.cancelled_count + EXCLUDED.cancelled_count,
+				delay_reasons = (
+					SELECT COALESCE(jsonb_object_agg(k, COALESCE(CAST(flight_daily_rollup.delay_reasons ->> k AS INTEGER), 0)
+						+ COALESCE(CAST(EXCLUDED.delay_reasons ->> k AS INTEGER), 0)), CAST('{}' AS JSONB))
+					FROM jsonb_object_keys(flight_daily_rollup.delay_reasons || EXCLUDED.delay_reasons) AS k
+				)""";
+
+	private static final String INSERT_INCIDENT = """
+			INSERT INTO flight_incident (id, origin_id, destination_id, airline_id, scheduled_departure, status, delay_minutes)
+			VALUES (?, ?, ?, ?, ?, ?, ?)
+			ON CONFLICT DO NOTHING""";
+
+	/** keeps the incidents ROUTE_INCIDENTS can return: the latest incident-limit cancellations and delay-limit delays */
+	private static final String PRUNE_INCIDENTS = """
+			DELETE FROM flight_incident i
+			USING (
+				SELECT id, status IN ('CANCELLED', 'DIVERTED') AS cancelled,
+					ROW_NUMBER() OVER (PARTITION BY status IN ('CANCELLED', 'DIVERTED') ORDER BY scheduled_departure DESC) AS rn
+				FROM flight_incident
+				WHERE origin_id = ? AND destination_id = ? AND airline_id = ?
+			) ranked
+			WHERE i.id = ranked.id AND ranked.rn > CASE WHEN ranked.cancelled THEN ? ELSE ? END""";
+
+	private static final String ROUTE_STATS = """
+			SELECT a.id, a.code, a.name, SUM(r.flight_count) AS flights, SUM(r.delay_sum) AS delay_sum,
+				SUM(r.on_time_count) AS on_time, SUM(r.cancelled_count) AS cancelled
+			FROM flight_daily_rollup r
+			JOIN airline a ON a.id = r.airline_id
+			JOIN airport o ON o.id = r.origin_id
+			JOIN airport d ON d.id = r.destination_id
+			WHERE o.code = ? AND d.code = ? AND r.service_date BETWEEN ? AND ?
+			GROUP BY a.id, a.code, a.name""";
+
+	private static final String ROUTE_INCIDENTS = """
+			SELECT airline_id, cancelled, scheduled_departure, status, delay_minutes
+			FROM (
+				SELECT i.airline_id, i.scheduled_departure, i.status, i.delay_minutes,
+					i.status IN ('CANCELLED', 'DIVERTED') AS cancelled,
+					ROW_NUMBER() OVER (PARTITION BY i.airline_id, i.status IN ('CANCELLED', 'DIVERTED')
+						ORDER BY i.scheduled_departure DESC) AS rn
+				FROM flight_incident i
+				JOIN airport o ON o.id = i.origin_id
+				JOIN airport d ON d.id = i.destination_id
+				WHERE o.code = ? AND d.code = ? AND i.scheduled_departure BETWEEN ? AND ?
+					AND (i.status IN ('CANCELLED', 'DIVERTED', 'DELAYED') OR i.delay_minutes > ?)
+			) ranked
+			WHERE rn <= CASE WHEN cancelled THEN ? ELSE ? END
+			ORDER BY scheduled_departure DESC""";
+
+	private static final String ROUTE_DAILY = """
+			SELECT a.id, a.code, a.name, r.service_date, r.flight_count, r.delay_sum, r.on_time_count, r.cancelled_count
+			FROM flight_daily_rollup r
+			JOIN airline a ON a.id = r.airline_id
+			JOIN airport o ON o.id = r.origin_id
+			JOIN airport d ON d.id = r.destination_id
+			WHERE o.code = ? AND d.code = ? AND r.service_date BETWEEN ? AND ?
+			ORDER BY r.service_date""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ConfigProps props;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * Folds a batch of newly written flights into the rollup and incident tables, then trims the incidents of the touched
+	 * routes and airlines to the most recent ones. Must run in the batch transaction.
+	 */
+	public void apply(List<FlightRow> batch, Function<String, UUID> airlineIds, Function<String, UUID> airportIds) {
+		Map<RollupKey, Rollup> rollups = new HashMap<>();
+		List<Object[]> incidents = new ArrayList<>();
+		Set<IncidentKey> incidentKeys = new LinkedHashSet<>();
+		for (FlightRow f : batch) {
+			UUID airlineId = airlineIds.apply(f.airlineCode());
+			UUID originId = airportIds.apply(f.originCode());
+			UUID destinationId = airportIds.apply(f.destinationCode());
+			var rollup = rollups.computeIfAbsent(
+					new RollupKey(originId, destinationId, airlineId, f.scheduledDeparture().toLocalDate()), k -> new Rollup());
+			rollup.add(f, props.getAcceptableDelayMinutes());
+
+			if (isIncident(f)) {
+				incidents.add(new Object[] {f.id(), originId, destinationId, airlineId,
+						Timestamp.valueOf(f.scheduledDeparture()), f.status().name(), f.delayMinutes()});
+				incidentKeys.add(new IncidentKey(originId, destinationId, airlineId));
+			}
+		}
+
+		List<Object[]> rows = new ArrayList<>(rollups.size());
+		rollups.forEach((key, rollup) -> rows.add(new Object[] {key.originId(), key.destinationId(), key.airlineId(),
+				Date.valueOf(key.serviceDate()), rollup.count, rollup.delaySum, rollup.onTime, rollup.cancelled,
+				toJson(rollup.reasons)}));
+		jdbcTemplate.batchUpdate(UPSERT_ROLLUP, rows);
+		if (!incidents.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_INCIDENT, incidents);
+			jdbcTemplate.batchUpdate(PRUNE_INCIDENTS, incidentKeys.stream()
+					.map(k -> new Object[] {k.originId(), k.destinationId(), k.airlineId(), props.getIncidentLimit(), props.getDelayLimit()})
+					.toList());
+		}
+	}
+
+	/**
+	 * Per-airline statistics for a route over [from, to], summed from the daily rollup, with recent incidents.
+	 */
+	public Map<Airline, FlightAuxStats> routeStats(String origin, String destination, LocalDateTime from, LocalDateTime to) {
+		Map<UUID, Airline> airlines = new LinkedHashMap<>();
+		Map<UUID, long[]> totals = new HashMap<>();
+		jdbcTemplate.query(ROUTE_STATS, (RowCallbackHandler) rs -> {
+			UUID id = rs.getObject(1, UUID.class);
+			airlines.put(id, Airline.builder().id(id).code(rs.getString(2)).name(rs.getString(3)).build());
+			totals.put(id, new long[] {rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)});
+		}, origin, destination, Date.valueOf(from.toLocalDate()), Date.valueOf(to.toLocalDate()));
+
+		Map<UUID, StringJoiner> delays = new HashMap<>();
+		Map<UUID, StringJoiner> cancels = new HashMap<>();
+		jdbcTemplate.query(ROUTE_INCIDENTS, (RowCallbackHandler) rs -> {
+			UUID airlineId = rs.getObject(1, UUID.class);
+			LocalDateTime departure = rs.getTimestamp(3).toLocalDateTime();
+			if (rs.getBoolean(2)) {
+				cancels.computeIfAbsent(airlineId, k -> new StringJoiner("; "))
+						.add(String.format("Departure Date: %s, Status: %s:,  Day of week: %s:",
+								departure.toLocalDate(), rs.getString(4), departure.getDayOfWeek()));
+			}
+			else {
+				delays.computeIfAbsent(airlineId, k -> new StringJoiner("; "))
+						.add(String.format("Departure date: %s,  Status: %s,  Delay: %d (min delay), Day Of week: %s",
+								departure.toLocalDate(), rs.getString(4), rs.getInt(5), departure.getDayOfWeek()));
+			}
+		}, origin, destination, Timestamp.valueOf(from), Timestamp.valueOf(to), props.getDelayMinutes(),
+				props.getIncidentLimit(), props.getDelayLimit());
+
+		Map<Airline, FlightAuxStats> stats = new LinkedHashMap<>();
+		airlines.forEach((id, airline) -> {
+			long[] t = totals.get(id);
+			long count = t[0];
+			String pastIncidents = new StringJoiner("\n")
+					.add(delays.getOrDefault(id, new StringJoiner("")).toString())
+					.add(cancels.getOrDefault(id, new StringJoiner("")).toString())
+					.toString();
+			stats.put(airline, new FlightAuxStats(
+					count == 0 ? 0.0 : (double) t[1] / count,
+					count == 0 ? 0.0 : (t[2] * 100.0) / count,
+					count == 0 ? 0.0 : (t[3] * 100.0) / count,
+					pastIncidents,
+					(int) count));
+		});
+		return stats;
+	}
+
+	/**
+	 * Per-airline, per-day rollup rows for a route over [from, to], ordered by service date.
+	 */
+	public List<DailyRollup> dailyRollups(String origin, String destination, LocalDate from, LocalDate to) {
+		Map<UUID, Airline> airlines = new HashMap<>();
+		List<DailyRollup> rollups = new ArrayList<>();
+		jdbcTemplate.query(ROUTE_DAILY, (RowCallbackHandler) rs -> {
+			UUID id = rs.getObject(1, UUID.class);
+			Airline airline = airlines.get(id);
+			if (airline == null) {
+				airline = Airline.builder().id(id).code(rs.getString(2)).name(rs.getString(3)).build();
+				airlines.put(id, airline);
+			}
+			rollups.add(new DailyRollup(airline, rs.getDate(4).toLocalDate(), rs.getLong(5), rs.getLong(6), rs.getLong(7),
+					rs.getLong(8)));
+		}, origin, destination, Date.valueOf(from), Date.valueOf(to));
+		return rollups;
+	}
+
+	private boolean isIncident(FlightRow f) {
+		return f.delayMinutes() > props.getDelayMinutes()
+				|| f.status() == FlightStatus.DELAYED
+				|| f.status() == FlightStatus.CANCELLED
+				|| f.status() == FlightStatus.DIVERTED;
+	}
+
+	private String toJson(Map<String, Integer> reasons) {
+		try {
+			return objectMapper.writeValueAsString(reasons);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public record DailyRollup(Airline airline, LocalDate serviceDate, long flights, long delaySum, long onTime, long cancelled) {
+	}
+
+	private record RollupKey(UUID originId, UUID destinationId, UUID airlineId, LocalDate serviceDate) {
+	}
+
+	private record IncidentKey(UUID originId, UUID destinationId, UUID airlineId) {
+	}
+
+	private static final class Rollup {
+		int count;
+		long delaySum;
+		int onTime;
+		int cancelled;
+		final Map<String, Integer> reasons = new HashMap<>();
+
+		void add(FlightRow f, int acceptableDelayMinutes) {
+			count++;
+			delaySum += f.delayMinutes();
+			if (f.delayMinutes() <= acceptableDelayMinutes) {
+				onTime++;
+			}
+			if (f.status() == FlightStatus.CANCELLED) {
+				cancelled++;
+			}
+			if (f.delayReason() != null && !f.delayReason().isEmpty()) {
+				reasons.merge(f.delayReason(), 1, Integer::sum);
+			}
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package io.ai.agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.ai.agent.config.ConfigProps;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Two-tier cache for structured LLM responses, keyed by a SHA-256 of the resolved model, system prompt, rendered
+ * prompt and target type. The heap tier is a bounded LRU; the database tier ({@code llm_response_cache}) survives
+ * restarts and is purged of expired rows on a schedule. TTLs are per target type (simple class name) with a default.
+ * Only calls whose answer depends on the prompt alone belong here, not calls that use tools.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LlmResponseCache {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ConfigProps props;
+	private final Environment environment;
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private final LongAdder heapHits = new LongAdder();
+	private final LongAdder databaseHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private Map<String, Cached> heap;
+
+	@PostConstruct
+	void init() {
+		int maxEntries = props.getLlmCache().getMaxEntries();
+		heap = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	public <T> T getOrCreate(String model, String systemPrompt, String prompt, Class<T> type, Supplier<T> call) {
+		if (!props.getLlmCache().isEnabled()) {
+			return call.get();
+		}
+
+		String key = key(resolveModel(model), systemPrompt, prompt, type);
+		long now = System.currentTimeMillis();
+
+		Cached cached = heap.get(key);
+		if (cached != null && cached.expiresAt() > now && type.isInstance(cached.value())) {
+			heapHits.increment();
+			return type.cast(cached.value());
+		}
+
+		T stored = load(key, type);
+		if (stored != null) {
+			databaseHits.increment();
+			return stored;
+		}
+
+		misses.increment();
+		T value = call.get();
+		if (value != null) {
+			store(key, type, value);
+		}
+		return value;
+	}
+
+	/**
+	 * The configured model behind an Embabel role such as {@code best} or {@code lite}; auto selection and unknown
+	 * roles resolve to the default LLM. Switching models therefore changes every key.
+	 */
+	String resolveModel(String role) {
+		var defaultLlm = environment.getProperty("embabel.models.default-llm", role);
+		return environment.getProperty("embabel.models.llms." + role, defaultLlm);
+	}
+
+	@Scheduled(fixedDelayString = "#{@configProps.llmCache.purgeInterval.toMillis()}",
+			initialDelayString = "#{@configProps.llmCache.purgeInterval.toMillis()}")
+	public void purgeExpired() {
+		if (!props.getLlmCache().isEnabled()) {
+			return;
+		}
+		try {
+			int deleted = jdbcTemplate.update("DELETE FROM llm_response_cache WHERE expires_at <= now()");
+			long now = System.currentTimeMillis();
+			synchronized (heap) {
+				heap.values().removeIf(cached -> cached.expiresAt() <= now);
+			}
+			if (deleted > 0) {
+				log.info("Purged {} expired LLM responses", deleted);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to purge expired LLM responses: {}", e.getMessage());
+		}
+	}
+
+	public Stats stats() {
+		return Stats.builder()
+				.heapHits(heapHits.sum())
+				.databaseHits(databaseHits.sum())
+				.misses(misses.sum())
+				.heapEntries(heap.size())
+				.build();
+	}
+
+	private <T> T load(String key, Class<T> type) {
+		try {
+			List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+					"SELECT response::text AS response, expires_at FROM llm_response_cache WHERE cache_key = ? AND expires_at > now()", key);
+			if (rows.isEmpty()) {
+				return null;
+			}
+			T value = objectMapper.readValue((String) rows.getFirst().get("response"), type);
+			heap.put(key, new Cached(value, ((Timestamp) rows.getFirst().get("expires_at")).getTime()));
+			return value;
+		}
+		catch (Exception e) {
+			log.warn("Failed to read cached LLM response: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private void store(String key, Class<?> type, Object value) {
+		Duration ttl = props.getLlmCache().getTypeTtl().getOrDefault(type.getSimpleName(), props.getLlmCache().getTtl());
+		LocalDateTime now = LocalDateTime.now();
+		heap.put(key, new Cached(value, System.currentTimeMillis() + ttl.toMillis()));
+		try {
+			jdbcTemplate.update("""
+							INSERT INTO llm_response_cache (cache_key, response_type, response, created_at, expires_at)
+							VALUES (?, ?, CAST(? AS JSONB), ?, ?)
+							ON CONFLICT (cache_key) DO UPDATE SET response = EXCLUDED.response,
+								created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at""",
+					key, type.getName(), objectMapper.writeValueAsString(value),
+					Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+		}
+		catch (Exception e) {
+			log.warn("Failed to persist LLM response: {}", e.getMessage());
+		}
+	}
+
+	private static String key(String model, String systemPrompt, String prompt, Class<?> type) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256");
+			for (String part : new String[] {model, systemPrompt, prompt, type.getName()}) {
+				digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private record Cached(Object value, long expiresAt) {
+	}
+
+	@Builder
+	public record Stats(long heapHits, long databaseHits, long misses, int heapEntries) {
+	}
+}
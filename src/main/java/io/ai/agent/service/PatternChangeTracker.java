@@ -0,0 +1,42 @@
+package io.ai.agent.service;
+
+import io.ai.agent.record.FlightRow;
+import io.ai.agent.repo.FlightRepository.PatternKey;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Records which hourly, route and airline patterns were touched by ingestion since the last pattern refresh.
+ */
+@Component
+public class PatternChangeTracker {
+
+	private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+	public void record(Collection<FlightRow> flights) {
+		for (FlightRow flight : flights) {
+			touched.add(PatternKey.hourlyKey(flight.scheduledDeparture().getHour()));
+			touched.add(PatternKey.routeKey(flight.originCode(), flight.destinationCode()));
+			touched.add(PatternKey.airlineKey(flight.airlineCode()));
+		}
+	}
+
+	/**
+	 * Returns the touched pattern keys and clears them.
+	 */
+	public Set<String> drain() {
+		Set<String> keys = Set.copyOf(touched);
+		touched.removeAll(keys);
+		return keys;
+	}
+
+	/**
+	 * Puts keys back after a failed refresh so that the next run picks them up again.
+	 */
+	public void restore(Collection<String> keys) {
+		touched.addAll(keys);
+	}
+}
@@ -0,0 +1,182 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches prediction responses per normalized request. Entries are fresh for {@code ttl}; after that they are still
+ * served for {@code stale-ttl} while a single background refresh replaces them. Concurrent misses for the same key
+ * share one load. Entries are grouped by route so ingestion invalidates a route without scanning the cache; each
+ * invalidation bumps the route's generation, and a load started before it is returned but not stored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PredictionCache {
+
+	private final ConfigProps props;
+	private final ExecutorService ioExecutor;
+	private final Map<String, Map<Key, Entry>> entriesByRoute = new ConcurrentHashMap<>();
+	private final Map<String, Long> generations = new ConcurrentHashMap<>();
+	private final Map<Key, CompletableFuture<PredictionResponse>> loading = new ConcurrentHashMap<>();
+	private final AtomicInteger size = new AtomicInteger();
+
+	public PredictionResponse get(PredictionRequest request, Supplier<PredictionResponse> loader) {
+		var cache = props.getResultCache();
+		if (!cache.isEnabled()) {
+			return loader.get();
+		}
+
+		Key key = Key.of(request);
+		var routeEntries = entriesByRoute.get(key.route());
+		Entry entry = routeEntries == null ? null : routeEntries.get(key);
+		long age = entry == null ? Long.MAX_VALUE : System.currentTimeMillis() - entry.createdAt();
+		if (age < cache.getTtl().toMillis()) {
+			return entry.response();
+		}
+		if (age < cache.getTtl().plus(cache.getStaleTtl()).toMillis()) {
+			if (entry.refreshing().compareAndSet(false, true)) {
+				ioExecutor.execute(() -> {
+					try {
+						load(key, loader);
+					}
+					catch (Exception e) {
+						entry.refreshing().set(false);
+						log.warn("Background refresh failed for {}: {}", key, e.getMessage());
+					}
+				});
+			}
+			return entry.response();
+		}
+		return load(key, loader);
+	}
+
+	public void invalidateRoutes(Collection<String> routes) {
+		for (String route : routes) {
+			entriesByRoute.compute(route, (r, routeEntries) -> {
+				generations.merge(r, 1L, Long::sum);
+				if (routeEntries != null) {
+					size.addAndGet(-routeEntries.size());
+				}
+				return null;
+			});
+		}
+		if (!routes.isEmpty()) {
+			// Later callers start a fresh load instead of joining one that predates the ingestion
+			loading.keySet().removeIf(key -> routes.contains(key.route()));
+		}
+	}
+
+	private PredictionResponse load(Key key, Supplier<PredictionResponse> loader) {
+		var future = new CompletableFuture<PredictionResponse>();
+		var existing = loading.putIfAbsent(key, future);
+		if (existing != null) {
+			return existing.join();
+		}
+		long generation = generations.getOrDefault(key.route(), 0L);
+		try {
+			PredictionResponse response = loader.get();
+			put(key, response, generation);
+			future.complete(response);
+			return response;
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			loading.remove(key, future);
+		}
+	}
+
+	private void put(Key key, PredictionResponse response, long generation) {
+		entriesByRoute.compute(key.route(), (route, routeEntries) -> {
+			if (generations.getOrDefault(route, 0L) != generation) {
+				log.debug("Not caching {}: route invalidated while it was loading", key);
+				return routeEntries;
+			}
+			var entries = routeEntries == null ? new ConcurrentHashMap<Key, Entry>() : routeEntries;
+			if (entries.put(key, new Entry(response, System.currentTimeMillis(), new AtomicBoolean())) == null) {
+				size.incrementAndGet();
+			}
+			return entries;
+		});
+		if (size.get() > props.getResultCache().getMaxEntries()) {
+			evict();
+		}
+	}
+
+	/**
+	 * Drops expired entries, then the oldest ones, until the cache is back within {@code max-entries}.
+	 */
+	private synchronized void evict() {
+		int maxEntries = props.getResultCache().getMaxEntries();
+		long expiredBefore = System.currentTimeMillis() - props.getResultCache().getTtl()
+				.plus(props.getResultCache().getStaleTtl()).toMillis();
+		entriesByRoute.forEach((route, entries) -> entries.forEach((key, entry) -> {
+			if (entry.createdAt() < expiredBefore) {
+				remove(key, entry);
+			}
+		}));
+		while (size.get() > maxEntries) {
+			var oldest = entriesByRoute.values().stream()
+					.flatMap(entries -> entries.entrySet().stream())
+					.min(Comparator.comparingLong(e -> e.getValue().createdAt()));
+			if (oldest.isEmpty()) {
+				break;
+			}
+			remove(oldest.get().getKey(), oldest.get().getValue());
+		}
+	}
+
+	private void remove(Key key, Entry entry) {
+		entriesByRoute.computeIfPresent(key.route(), (route, entries) -> {
+			if (entries.remove(key, entry)) {
+				size.decrementAndGet();
+			}
+			return entries.isEmpty() ? null : entries;
+		});
+	}
+
+	/**
+	 * Requests for the same route, hour and options share a cache entry.
+	 */
+	record Key(String origin, String destination, LocalDateTime travelHour, String preferredAirline,
+			   Integer flexibilityDays) {
+
+		static Key of(PredictionRequest request) {
+			return new Key(normalize(request.origin()), normalize(request.destination()),
+					request.travelDate().truncatedTo(ChronoUnit.HOURS), normalize(request.preferredAirline()),
+					Objects.requireNonNullElse(request.flexibilityDays(), 0));
+		}
+
+		String route() {
+			return origin + "-" + destination;
+		}
+
+		private static String normalize(String code) {
+			return code == null ? null : code.strip().toUpperCase(Locale.ROOT);
+		}
+	}
+
+	private record Entry(PredictionResponse response, long createdAt, AtomicBoolean refreshing) {
+	}
+}
@@ -0,0 +1,127 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.PredictionJob;
+import io.ai.agent.record.PredictionJob.Status;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Runs predictions off the request thread and keeps their outcome in a bounded in-memory store. Finished jobs
+ * expire after {@code prediction.jobs.ttl}; when the store is full the oldest finished job is evicted, and new
+ * submissions are rejected if every slot holds a job that is still running.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PredictionJobService {
+
+	private final ExecutorService ioExecutor;
+	private final RestClient.Builder restClientBuilder;
+	private final ConfigProps props;
+
+	private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+	public PredictionJob submit(PredictionRequest request, Supplier<PredictionResponse> prediction) {
+		var job = new Job(UUID.randomUUID().toString(), request);
+		synchronized (jobs) {
+			purge();
+			if (jobs.size() >= props.getJobs().getMaxJobs()) {
+				throw new IllegalStateException("Too many prediction jobs in progress");
+			}
+			jobs.put(job.id, job);
+		}
+		ioExecutor.execute(() -> run(job, prediction));
+		return job.snapshot();
+	}
+
+	public Optional<PredictionJob> find(String id) {
+		synchronized (jobs) {
+			purge();
+			return Optional.ofNullable(jobs.get(id)).map(Job::snapshot);
+		}
+	}
+
+	private void run(Job job, Supplier<PredictionResponse> prediction) {
+		job.status = Status.RUNNING;
+		Status outcome;
+		try {
+			job.result = prediction.get();
+			outcome = Status.COMPLETED;
+		}
+		catch (Exception e) {
+			log.error("Prediction job {} failed", job.id, e);
+			job.error = e.getMessage();
+			outcome = Status.FAILED;
+		}
+		job.completedAt = LocalDateTime.now();
+		job.status = outcome;
+		notifyWebhook(job.snapshot());
+	}
+
+	private void notifyWebhook(PredictionJob job) {
+		String url = props.getJobs().getWebhookUrl();
+		if (!StringUtils.hasText(url)) {
+			return;
+		}
+		try {
+			restClientBuilder.build().post()
+					.uri(url)
+					.contentType(MediaType.APPLICATION_JSON)
+					.body(job)
+					.retrieve()
+					.toBodilessEntity();
+		}
+		catch (Exception e) {
+			log.warn("Failed to deliver webhook for prediction job {}: {}", job.id(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Drops expired jobs, then the oldest finished ones while over capacity; callers hold the store lock.
+	 */
+	private void purge() {
+		var expiredBefore = LocalDateTime.now().minus(props.getJobs().getTtl());
+		jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(expiredBefore));
+		Iterator<Job> oldest = jobs.values().iterator();
+		while (jobs.size() >= props.getJobs().getMaxJobs() && oldest.hasNext()) {
+			if (oldest.next().completedAt != null) {
+				oldest.remove();
+			}
+		}
+	}
+
+	private static final class Job {
+		final String id;
+		final PredictionRequest request;
+		final LocalDateTime submittedAt = LocalDateTime.now();
+		volatile Status status = Status.PENDING;
+		volatile PredictionResponse result;
+		volatile String error;
+		volatile LocalDateTime completedAt;
+
+		Job(String id, PredictionRequest request) {
+			this.id = id;
+			this.request = request;
+		}
+
+		PredictionJob snapshot() {
+			return new PredictionJob(id, status, request, result, error, submittedAt, completedAt);
+		}
+	}
+}
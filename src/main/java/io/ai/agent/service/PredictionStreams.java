@@ -0,0 +1,48 @@
+package io.ai.agent.service;
+
+import io.ai.agent.record.AirlinePrediction;
+import io.ai.agent.record.PredictionRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands per-airline predictions to subscribers while the rest of the route is still being predicted. Subscriptions
+ * are keyed by request value, so callers coalesced onto the same prediction all receive its events.
+ */
+@Component
+@Slf4j
+public class PredictionStreams {
+
+	private final Map<PredictionRequest, List<Consumer<AirlinePrediction>>> listeners = new ConcurrentHashMap<>();
+
+	public Subscription subscribe(PredictionRequest request, Consumer<AirlinePrediction> listener) {
+		listeners.computeIfAbsent(request, k -> new CopyOnWriteArrayList<>()).add(listener);
+		return () -> listeners.computeIfPresent(request, (k, v) -> {
+			v.remove(listener);
+			return v.isEmpty() ? null : v;
+		});
+	}
+
+	public void publish(PredictionRequest request, AirlinePrediction prediction) {
+		for (var listener : listeners.getOrDefault(request, List.of())) {
+			try {
+				listener.accept(prediction);
+			}
+			catch (Exception e) {
+				log.warn("Failed to publish prediction for airline {}: {}", prediction.airlineCode(), e.getMessage());
+			}
+		}
+	}
+
+	public interface Subscription extends AutoCloseable {
+
+		@Override
+		void close();
+	}
+}
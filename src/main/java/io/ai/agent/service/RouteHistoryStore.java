@@ -0,0 +1,400 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightAuxStats;
+import io.ai.agent.record.FlightRow;
+import io.ai.agent.repo.AirlineRepository;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-process columnar copy of the flight history, partitioned by route. Each partition holds primitive
+ * columns sorted by departure (epoch minutes), with airlines dictionary-encoded, so route statistics are computed from
+ * array slices without hydrating {@code Flight} entities.
+ * Loaded at startup when {@code prediction.route-history.enabled} is set and appended to on ingestion; batches ingested
+ * while the load runs are buffered and replayed once it finishes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteHistoryStore {
+
+	private static final FlightStatus[] STATUSES = FlightStatus.values();
+	private static final String LOAD_FLIGHTS = """
+			SELECT o.code, d.code, a.code, f.scheduled_departure, f.delay_minutes, f.status
+			FROM flight f
+			JOIN airline a ON a.id = f.airline_id
+			JOIN airport o ON o.id = f.origin_id
+			JOIN airport d ON d.id = f.destination_id
+			WHERE f.scheduled_departure IS NOT NULL
+			ORDER BY o.code, d.code, f.scheduled_departure""";
+	private static final String LOADED_FLIGHTS = "SELECT id FROM flight WHERE id = ANY(?)";
+
+	private final DataSource dataSource;
+	private final TransactionTemplate transactionTemplate;
+	private final AirlineRepository airlineRepository;
+	private final ExecutorService ioExecutor;
+	private final ConfigProps props;
+
+	private final Map<String, RouteColumns> routes = new ConcurrentHashMap<>();
+	private final Map<String, Airline> airlinesByCode = new ConcurrentHashMap<>();
+	private final Dictionary airlineCodes = new Dictionary();
+	/** batches appended while the load runs; guards {@link #loading} */
+	private final List<FlightRow> pending = new ArrayList<>();
+	private final Map<String, Airline> pendingAirlines = new HashMap<>();
+	private boolean loading;
+	private volatile boolean ready;
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (!props.getRouteHistory().isEnabled()) {
+			return;
+		}
+		synchronized (pending) {
+			loading = true;
+		}
+		ioExecutor.execute(() -> {
+			try {
+				long start = System.nanoTime();
+				airlineRepository.findAll().forEach(a -> airlinesByCode.put(a.getCode(), a));
+				var jdbcTemplate = new JdbcTemplate(dataSource);
+				jdbcTemplate.setFetchSize(props.getRouteHistory().getFetchSize());
+				var snapshot = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+				// One snapshot for the streamed load and for telling which buffered rows it already saw; the transaction
+				// also keeps the PostgreSQL cursor open so rows are streamed in fetch-size pages
+				snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+				snapshot.setReadOnly(true);
+				long[] rows = new long[2];
+				int replayed = snapshot.execute(status -> {
+					jdbcTemplate.query(LOAD_FLIGHTS, (RowCallbackHandler) rs -> {
+						FlightStatus flightStatus = status(rs.getString(6));
+						if (flightStatus == null) {
+							rows[1]++;
+							return;
+						}
+						var columns = routes.computeIfAbsent(rs.getString(1) + "-" + rs.getString(2), k -> new RouteColumns());
+						columns.append(epochMinute(rs.getTimestamp(4).toLocalDateTime()), rs.getInt(5), flightStatus,
+								airlineCodes.id(rs.getString(3)));
+						rows[0]++;
+					});
+					synchronized (pending) {
+						int count = replayPending(jdbcTemplate);
+						ready = true;
+						loading = false;
+						return count;
+					}
+				});
+				if (rows[1] > 0) {
+					log.warn("Skipped {} flights without a known status while loading the route history store", rows[1]);
+				}
+				log.info("Loaded {} flights on {} routes into the route history store in {} ms, replayed {} ingested meanwhile",
+						rows[0], routes.size(), (System.nanoTime() - start) / 1_000_000, replayed);
+			}
+			catch (Exception e) {
+				synchronized (pending) {
+					loading = false;
+					pending.clear();
+					pendingAirlines.clear();
+				}
+				log.error("Failed to load the route history store", e);
+			}
+		});
+	}
+
+	/**
+	 * Appends the buffered rows the load snapshot did not contain; callers hold the {@link #pending} lock.
+	 */
+	private int replayPending(JdbcTemplate jdbcTemplate) {
+		if (pending.isEmpty()) {
+			return 0;
+		}
+		Set<UUID> loaded = new HashSet<>();
+		Object[] ids = pending.stream().map(FlightRow::id).toArray();
+		jdbcTemplate.query(LOADED_FLIGHTS,
+				(PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)),
+				(RowCallbackHandler) rs -> loaded.add(rs.getObject(1, UUID.class)));
+		var missing = pending.stream().filter(f -> !loaded.contains(f.id())).toList();
+		airlinesByCode.putAll(pendingAirlines);
+		appendRows(missing);
+		pending.clear();
+		pendingAirlines.clear();
+		return missing.size();
+	}
+
+	/**
+	 * Adds freshly copied rows. While the startup load runs they are buffered and replayed after it; before it starts,
+	 * or when the store is disabled, they are ignored because the load snapshot covers them.
+	 */
+	public void append(Collection<FlightRow> flights, Map<String, Airline> airlines) {
+		synchronized (pending) {
+			if (loading) {
+				pending.addAll(flights);
+				pendingAirlines.putAll(airlines);
+				return;
+			}
+		}
+		if (!ready) {
+			return;
+		}
+		airlinesByCode.putAll(airlines);
+		appendRows(flights);
+	}
+
+	private void appendRows(Collection<FlightRow> flights) {
+		flights.stream()
+				.filter(f -> f.status() != null && f.scheduledDeparture() != null)
+				.collect(Collectors.groupingBy(FlightRow::route))
+				.forEach((route, rows) -> {
+					var columns = routes.computeIfAbsent(route, k -> new RouteColumns());
+					columns.lock.writeLock().lock();
+					try {
+						for (FlightRow f : rows) {
+							columns.append(epochMinute(f.scheduledDeparture()), f.delayMinutes(), f.status(),
+									airlineCodes.id(f.airlineCode()));
+						}
+						columns.sort();
+					}
+					finally {
+						columns.lock.writeLock().unlock();
+					}
+				});
+	}
+
+	/**
+	 * Same statistics and incident summary as the rollup, per airline, for departures in [from, to].
+	 */
+	public Map<Airline, FlightAuxStats> routeStats(String origin, String destination, LocalDateTime from, LocalDateTime to) {
+		var columns = routes.get(origin + "-" + destination);
+		if (columns == null) {
+			return Map.of();
+		}
+		columns.lock.readLock().lock();
+		try {
+			int start = columns.lowerBound(epochMinute(from));
+			int end = columns.lowerBound(epochMinute(to) + 1);
+			int airlines = airlineCodes.size();
+			long[] count = new long[airlines];
+			long[] delaySum = new long[airlines];
+			long[] onTime = new long[airlines];
+			long[] cancelled = new long[airlines];
+			for (int i = start; i < end; i++) {
+				int airline = columns.airlines[i];
+				count[airline]++;
+				delaySum[airline] += columns.delays[i];
+				if (columns.delays[i] <= props.getAcceptableDelayMinutes()) {
+					onTime[airline]++;
+				}
+				if (columns.statuses[i] == FlightStatus.CANCELLED.ordinal()) {
+					cancelled[airline]++;
+				}
+			}
+
+			Map<Airline, FlightAuxStats> stats = new LinkedHashMap<>();
+			for (int airline = 0; airline < airlines; airline++) {
+				if (count[airline] == 0) {
+					continue;
+				}
+				Airline entity = airlinesByCode.get(airlineCodes.value(airline));
+				if (entity == null) {
+					continue;
+				}
+				stats.put(entity, new FlightAuxStats(
+						(double) delaySum[airline] / count[airline],
+						(onTime[airline] * 100.0) / count[airline],
+						(cancelled[airline] * 100.0) / count[airline],
+						recentIncidents(columns, start, end, airline),
+						(int) count[airline]));
+			}
+			return stats;
+		}
+		finally {
+			columns.lock.readLock().unlock();
+		}
+	}
+
+	private String recentIncidents(RouteColumns columns, int start, int end, int airline) {
+		var delays = new StringJoiner("; ");
+		var cancels = new StringJoiner("; ");
+		int delayed = 0;
+		int cancelled = 0;
+		for (int i = end - 1; i >= start; i--) {
+			if (columns.airlines[i] != airline) {
+				continue;
+			}
+			FlightStatus status = STATUSES[columns.statuses[i]];
+			LocalDateTime departure = fromEpochMinute(columns.departures[i]);
+			if (status == FlightStatus.CANCELLED || status == FlightStatus.DIVERTED) {
+				if (cancelled < props.getIncidentLimit()) {
+					cancels.add(String.format("Departure Date: %s, Status: %s:,  Day of week: %s:",
+							departure.toLocalDate(), status, departure.getDayOfWeek()));
+					cancelled++;
+				}
+			}
+			else if (delayed < props.getDelayLimit() && (columns.delays[i] > props.getDelayMinutes() || status == FlightStatus.DELAYED)) {
+				delays.add(String.format("Departure date: %s,  Status: %s,  Delay: %d (min delay), Day Of week: %s",
+						departure.toLocalDate(), status, columns.delays[i], departure.getDayOfWeek()));
+				delayed++;
+			}
+		}
+		return new StringJoiner("\n").add(delays.toString()).add(cancels.toString()).toString();
+	}
+
+	private static FlightStatus status(String name) {
+		if (name == null) {
+			return null;
+		}
+		try {
+			return FlightStatus.valueOf(name);
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static int epochMinute(LocalDateTime dateTime) {
+		return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+	}
+
+	private static LocalDateTime fromEpochMinute(int minute) {
+		return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+	}
+
+	private static final class RouteColumns {
+
+		final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		int size;
+		int[] departures = new int[64];
+		short[] delays = new short[64];
+		byte[] statuses = new byte[64];
+		int[] airlines = new int[64];
+		boolean sorted = true;
+
+		void append(int departure, int delay, FlightStatus status, int airline) {
+			if (size == departures.length) {
+				int capacity = size * 2;
+				departures = Arrays.copyOf(departures, capacity);
+				delays = Arrays.copyOf(delays, capacity);
+				statuses = Arrays.copyOf(statuses, capacity);
+				airlines = Arrays.copyOf(airlines, capacity);
+			}
+			if (size > 0 && departure < departures[size - 1]) {
+				sorted = false;
+			}
+			departures[size] = departure;
+			delays[size] = (short) Math.clamp(delay, Short.MIN_VALUE, Short.MAX_VALUE);
+			statuses[size] = (byte) status.ordinal();
+			airlines[size] = airline;
+			size++;
+		}
+
+		/**
+		 * Restores departure order after out-of-order appends; callers hold the write lock.
+		 */
+		void sort() {
+			if (sorted) {
+				return;
+			}
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingInt(i -> departures[i]));
+			int[] d = new int[departures.length];
+			short[] dl = new short[delays.length];
+			byte[] st = new byte[statuses.length];
+			int[] al = new int[airlines.length];
+			for (int i = 0; i < size; i++) {
+				int from = order[i];
+				d[i] = departures[from];
+				dl[i] = delays[from];
+				st[i] = statuses[from];
+				al[i] = airlines[from];
+			}
+			departures = d;
+			delays = dl;
+			statuses = st;
+			airlines = al;
+			sorted = true;
+		}
+
+		/**
+		 * Index of the first departure at or after the given minute.
+		 */
+		int lowerBound(int minute) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (departures[mid] < minute) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Append-only string dictionary; {@code null} encodes as -1.
+	 */
+	private static final class Dictionary {
+
+		private final Map<String, Integer> ids = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		synchronized int id(String value) {
+			if (value == null) {
+				return -1;
+			}
+			return ids.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+
+		synchronized String value(int id) {
+			return values.get(id);
+		}
+
+		synchronized int size() {
+			return values.size();
+		}
+	}
+}
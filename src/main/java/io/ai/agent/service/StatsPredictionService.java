@@ -6,9 +6,11 @@ import io.ai.agent.record.CrewAnalysis;
 import io.ai.agent.record.FlightAuxStats;
 import io.ai.agent.record.PredictionDetails;
 import io.ai.agent.record.WeatherAnalysis;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,8 +21,22 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class StatsPredictionService {
 
+	private final FlightRollupService flightRollupService;
+	private final RouteHistoryStore routeHistoryStore;
 	private final ConfigProps props;
 
+	/**
+	 * Per-airline route statistics over the history window before the travel day, from the in-memory route history
+	 * store when it is loaded, else from the daily rollup.
+	 */
+	public Map<Airline, FlightAuxStats> routeStats(String origin, String destination, LocalDateTime travelDate) {
+		var from = travelDate.toLocalDate().minusMonths(props.getHistoryPeriodMonths()).atStartOfDay();
+		var to = travelDate.toLocalDate().minusDays(1).atTime(23, 59, 59);
+		return routeHistoryStore.isReady()
+				? routeHistoryStore.routeStats(origin, destination, from, to)
+				: flightRollupService.routeStats(origin, destination, from, to);
+	}
+
 	public PredictionDetails createStatisticalPrediction(Airline airline, FlightAuxStats flightAuxStats,
 			WeatherAnalysis weatherAnalysis, CrewAnalysis crewAnalysis) {
 		double delayProbability = 100 - flightAuxStats.onTimePercentage();
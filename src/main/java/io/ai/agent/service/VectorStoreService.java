@@ -1,17 +1,37 @@
 package io.ai.agent.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.ai.agent.config.ConfigProps;
 import io.ai.agent.record.FlightHistoricalData;
+import io.ai.agent.repo.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter.Expression;
+import org.springframework.ai.vectorstore.pgvector.PgVectorFilterExpressionConverter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,35 +39,237 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class VectorStoreService {
 
+	private static final String FLIGHT_PATTERN = "Flights departing on %s between 00:00 and 23:59 hours with delays considering weather, crew, and aircraft factors";
+	private static final String ROUTE_PATTERN = "Route %s to %s: with delays and cancellations";
+
 	private final VectorStore vectorStore;
+	private final EmbeddingModel vectorEmbeddingModel;
+	private final JdbcTemplate jdbcTemplate;
+	private final FlightRepository flightRepository;
+	private final ExecutorService ioExecutor;
 	private final ConfigProps props;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PgVectorFilterExpressionConverter filterConverter = new PgVectorFilterExpressionConverter();
+	private Map<String, float[]> queryEmbeddings;
+	private Map<String, SearchResult> searchResults;
+
+	@PostConstruct
+	void initQueryCache() {
+		int maxSize = props.getVector().getQueryCacheSize();
+		queryEmbeddings = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+				return size() > maxSize;
+			}
+		});
+		int maxResults = props.getVector().getSearchResultCacheSize();
+		searchResults = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SearchResult> eldest) {
+				return size() > maxResults;
+			}
+		});
+	}
 
 	public void addDocuments(List<String> contents, Map<String, Object> metadata) {
 		List<Document> documents = contents.stream()
 				.map(content -> new Document(content, metadata))
 				.collect(Collectors.toList());
 
+		addDocuments(documents);
+	}
+
+	public void addDocuments(List<Document> documents) {
 		vectorStore.add(documents);
+		clearSearchResults();
 		log.info("Added {} documents to vector store", documents.size());
 	}
 
+	/**
+	 * Drops memoized search results; called whenever documents are added to the store.
+	 */
+	public void clearSearchResults() {
+		searchResults.clear();
+	}
+
+	/**
+	 * Deletes pattern documents stored under random ids before pattern ids became name-based (version 3) UUIDs;
+	 * the refresh replaces them under stable ids.
+	 */
+	public void deleteLegacyPatterns() {
+		var sql = "DELETE FROM %s.%s WHERE metadata->>'type' = 'pattern' AND substring(id::text, 15, 1) <> '3'"
+				.formatted(props.getVector().getSchema(), props.getVector().getTable());
+		int deleted = jdbcTemplate.update(sql);
+		if (deleted > 0) {
+			clearSearchResults();
+			log.info("Deleted {} legacy pattern documents", deleted);
+		}
+	}
+
 	public List<Document> searchSimilarDocuments(String query) {
-		SearchRequest searchRequest = SearchRequest.builder()
-				.query(query)
-				.topK(props.getVector().getTopK())
-				.similarityThreshold(props.getVector().getSimilarityThreshold())
-				.build();
-		return vectorStore.similaritySearch(searchRequest);
+		return searchSimilarDocuments(query, null);
 	}
 
+	/**
+	 * Cosine similarity search using the cached query embedding, so repeated queries skip the embedding model.
+	 * Mirrors {@code PgVectorStore#similaritySearch}, including its JSONPath metadata filter.
+	 */
 	public List<Document> searchSimilarDocuments(String query, Expression expression) {
-		SearchRequest searchRequest = SearchRequest.builder()
-				.query(query)
-				.topK(props.getVector().getTopK())
-				.similarityThreshold(props.getVector().getSimilarityThreshold())
-				.filterExpression(expression)
-				.build();
-		return vectorStore.similaritySearch(searchRequest);
+		// The JSONPath is bound as a parameter: filter values come from request input
+		var jsonPath = expression == null ? null : filterConverter.convertExpression(expression);
+		var ttl = props.getVector().getSearchResultTtl();
+		if (ttl.isZero()) {
+			return search(query, jsonPath);
+		}
+		// Concurrent and back-to-back predictions for the same weekday or route share one search
+		long now = System.nanoTime();
+		var created = new SearchResult[1];
+		var result = searchResults.compute(jsonPath == null ? query : query + "\u0000" + jsonPath, (k, v) -> {
+			if (v != null && now - v.createdAt() < ttl.toNanos() && !v.documents().isCompletedExceptionally()) {
+				return v;
+			}
+			created[0] = new SearchResult(new CompletableFuture<>(), now);
+			return created[0];
+		});
+		if (result == created[0]) {
+			try {
+				result.documents().complete(search(query, jsonPath));
+			}
+			catch (RuntimeException e) {
+				result.documents().completeExceptionally(e);
+				throw e;
+			}
+		}
+		return result.documents().join();
+	}
+
+	private List<Document> search(String query, String jsonPath) {
+		var vector = props.getVector();
+		var sql = """
+				SELECT id, content, metadata::text, embedding <=> CAST(? AS vector) AS distance
+				FROM %s.%s
+				WHERE embedding <=> CAST(? AS vector) < ?%s
+				ORDER BY distance
+				LIMIT ?""".formatted(vector.getSchema(), vector.getTable(),
+				jsonPath == null ? "" : " AND metadata::jsonb @@ CAST(? AS jsonpath)");
+		var embedding = toVectorLiteral(embedQuery(query));
+		List<Object> args = new ArrayList<>(List.of(embedding, embedding, 1 - vector.getSimilarityThreshold()));
+		if (jsonPath != null) {
+			args.add(jsonPath);
+		}
+		args.add(vector.getTopK());
+		return jdbcTemplate.query(sql, (rs, rowNum) -> {
+			double distance = rs.getDouble(4);
+			Map<String, Object> metadata = new HashMap<>(readMetadata(rs.getString(3)));
+			metadata.put("distance", distance);
+			return Document.builder()
+					.id(rs.getString(1))
+					.text(rs.getString(2))
+					.metadata(metadata)
+					.score(1 - distance)
+					.build();
+		}, args.toArray());
+	}
+
+	public static String flightPatternQuery(DayOfWeek dayOfWeek) {
+		return String.format(FLIGHT_PATTERN, dayOfWeek);
+	}
+
+	public static String routePatternQuery(String origin, String destination) {
+		return String.format(ROUTE_PATTERN, origin, destination);
+	}
+
+	/**
+	 * Embeds a query, caching the vector by embedding model and normalized query text.
+	 */
+	public float[] embedQuery(String query) {
+		var key = props.getVector().getEmbeddingModel() + "|" + query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+		var cached = queryEmbeddings.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		var embedding = vectorEmbeddingModel.embed(query);
+		queryEmbeddings.put(key, embedding);
+		return embedding;
+	}
+
+	/**
+	 * Warms the query-embedding cache with every day-of-week pattern and every known route, up to the cache size.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmQueryEmbeddings() {
+		ioExecutor.execute(() -> {
+			try {
+				var queries = new ArrayList<String>();
+				for (DayOfWeek day : DayOfWeek.values()) {
+					queries.add(flightPatternQuery(day));
+				}
+				for (String route : flightRepository.findDistinctRoutes()) {
+					String[] codes = route.split("-", 2);
+					queries.add(routePatternQuery(codes[0], codes[1]));
+				}
+				queries.stream().limit(props.getVector().getQueryCacheSize()).forEach(this::embedQuery);
+				log.info("Warmed query embedding cache with {} queries", queryEmbeddings.size());
+			}
+			catch (Exception e) {
+				log.warn("Failed to warm query embedding cache: {}", e.getMessage());
+			}
+		});
+	}
+
+	private Map<String, Object> readMetadata(String json) {
+		if (json == null || json.isEmpty()) {
+			return Map.of();
+		}
+		try {
+			return objectMapper.readValue(json, new TypeReference<>() {
+			});
+		}
+		catch (JsonProcessingException e) {
+			log.warn("Failed to parse document metadata: {}", e.getMessage());
+			return Map.of();
+		}
+	}
+
+	private static String toVectorLiteral(float[] embedding) {
+		var literal = new StringBuilder(embedding.length * 10).append('[');
+		for (int i = 0; i < embedding.length; i++) {
+			if (i > 0) {
+				literal.append(',');
+			}
+			literal.append(embedding[i]);
+		}
+		return literal.append(']').toString();
+	}
+
+	/**
+	 * Loads the stored embeddings for the given document ids, keyed by id.
+	 */
+	public Map<String, float[]> findEmbeddings(Collection<String> ids) {
+		if (ids.isEmpty()) {
+			return Map.of();
+		}
+		var sql = "SELECT id, embedding::text FROM %s.%s WHERE id = ANY(?)"
+				.formatted(props.getVector().getSchema(), props.getVector().getTable());
+		Map<String, float[]> embeddings = new HashMap<>();
+		jdbcTemplate.query(sql,
+				(PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+				(RowCallbackHandler) rs -> embeddings.put(rs.getString(1), parseVector(rs.getString(2))));
+		return embeddings;
+	}
+
+	private static float[] parseVector(String text) {
+		// pgvector text format: [0.1,0.2,...]
+		String body = text.substring(1, text.length() - 1);
+		if (body.isEmpty()) {
+			return new float[0];
+		}
+		String[] parts = body.split(",");
+		float[] vector = new float[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			vector[i] = Float.parseFloat(parts[i]);
+		}
+		return vector;
 	}
 
 	public void processAndStoreFlightData(List<FlightHistoricalData> data) {
@@ -80,4 +302,7 @@ public class VectorStoreService {
 				data.delayReason(), data.historicalPattern()
 		);
 	}
+
+	private record SearchResult(CompletableFuture<List<Document>> documents, long createdAt) {
+	}
 }
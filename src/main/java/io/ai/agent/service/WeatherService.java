@@ -1,18 +1,38 @@
 package io.ai.agent.service;
 
+import io.ai.agent.config.ConfigProps;
 import io.ai.agent.entity.Airport;
 import io.ai.agent.entity.WeatherData;
 import io.ai.agent.record.WeatherRecord;
 import io.ai.agent.repo.AirportRepository;
 import io.ai.agent.repo.WeatherDataRepository;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
 
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -21,46 +41,233 @@ import org.springframework.web.client.RestTemplate;
 @Slf4j
 public class WeatherService {
 
+	private static final int FORECAST_DAYS = 7;
+	private static final String FORECAST_URL = "%s/v1/forecast?latitude=%f&longitude=%f&timezone=auto&forecast_days=" + FORECAST_DAYS
+			+ "&current=temperature_2m,wind_speed_10m,weather_code,visibility"
+			+ "&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code,visibility,precipitation_probability";
+	private static final String INSERT_WEATHER = """
+			INSERT INTO weather_data (id, airport_id, date_time, temperature, wind_speed, visibility, conditions, severe_weather,
+				precipitation_probability)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+			ON CONFLICT (airport_id, date_time) DO NOTHING""";
+
 	private final WeatherDataRepository weatherDataRepository;
 	private final AirportRepository airportRepository;
 	private final RestTemplate restTemplate;
+	private final JdbcTemplate jdbcTemplate;
+	private final ConfigProps props;
+
+	private final Map<String, Map<LocalDateTime, Bucket>> hourlyCache = new ConcurrentHashMap<>();
+	private final Map<LoadKey, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+	/** zone of the local times Open-Meteo returns for each airport, since the forecast is requested with timezone=auto */
+	private final Map<String, ZoneId> zones = new ConcurrentHashMap<>();
 
 	@Tool(name = "weather-forecast", description = "Get the weather forecast for a given airport code and date")
 	@McpTool(name = "weather-forecast", description = "Get the weather forecast for a given airport code and date")
 	public WeatherData getWeatherForecast(@McpToolParam(description = "input the airport code") String airportCode, @McpToolParam(description = "current datetime") LocalDateTime dateTime) {
+		var cached = cachedForecast(airportCode, dateTime);
+		if (cached != null) {
+			return cached;
+		}
+		var hour = dateTime.truncatedTo(ChronoUnit.HOURS);
+		// The forecast covers today and the next six days in the airport's zone, not the server's
+		var windowStart = LocalDate.now(zoneOf(airportCode)).atStartOfDay();
+		if (!hour.isBefore(windowStart) && hour.isBefore(windowStart.plusDays(FORECAST_DAYS))) {
+			// Misses for any hour of the forecast window share one load, which fills every hour of it
+			singleFlight(new LoadKey(airportCode, windowStart), () -> loadForecastWindow(airportCode, windowStart, dateTime));
+			cached = cachedForecast(airportCode, dateTime);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		// Outside the forecast window each hour is loaded on its own, still one load per airport and hour
+		return singleFlight(new LoadKey(airportCode, hour), () -> findStoredForecast(airportCode, dateTime)
+				.orElseGet(() -> fetchAndSaveExternalWeatherData(airportCode, dateTime)));
+	}
+
+	/**
+	 * Caches the stored hours of the forecast window for the airport, calling Open-Meteo only if some are missing.
+	 */
+	private WeatherData loadForecastWindow(String airportCode, LocalDateTime windowStart, LocalDateTime dateTime) {
+		List<WeatherData> stored = weatherDataRepository.findByAirportAndTimeRange(airportCode, windowStart,
+				windowStart.plusDays(FORECAST_DAYS).minusHours(1));
+		stored.forEach(w -> cache(airportCode, w.getDateTime(), w));
+		long hours = stored.stream().map(w -> w.getDateTime().truncatedTo(ChronoUnit.HOURS)).distinct().count();
+		return hours >= FORECAST_DAYS * 24L ? null : fetchAndSaveExternalWeatherData(airportCode, dateTime);
+	}
+
+	/**
+	 * The airport's zone as reported by the last forecast response, else as stored for the airport, else the server's.
+	 */
+	private ZoneId zoneOf(String airportCode) {
+		var zone = zones.computeIfAbsent(airportCode, code -> airportRepository.findByCode(code)
+				.flatMap(airport -> zone(airport.getTimezone()))
+				.orElse(null));
+		return zone != null ? zone : ZoneId.systemDefault();
+	}
+
+	private static Optional<ZoneId> zone(String id) {
+		try {
+			return id == null ? Optional.empty() : Optional.of(ZoneId.of(id));
+		}
+		catch (DateTimeException e) {
+			return Optional.empty();
+		}
+	}
+
+	private <T> T singleFlight(LoadKey key, Supplier<T> loader) {
+		var created = new CompletableFuture<Object>();
+		var inFlight = loading.putIfAbsent(key, created);
+		if (inFlight == null) {
+			try {
+				T value = loader.get();
+				created.complete(value);
+				return value;
+			}
+			catch (RuntimeException e) {
+				created.completeExceptionally(e);
+				throw e;
+			}
+			finally {
+				loading.remove(key, created);
+			}
+		}
+		try {
+			@SuppressWarnings("unchecked")
+			T value = (T) inFlight.join();
+			return value;
+		}
+		catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	/**
+	 * Stored weather within an hour of the given time, without falling back to the external API.
+	 */
+	public Optional<WeatherData> findStoredForecast(String airportCode, LocalDateTime dateTime) {
+		var cached = cachedForecast(airportCode, dateTime);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
 		List<WeatherData> weatherData = weatherDataRepository.findByAirportAndTimeRange(
 				airportCode,
 				dateTime.minusHours(1),
 				dateTime.plusHours(1)
 		);
+		var stored = weatherData.stream().findFirst();
+		stored.ifPresent(w -> cache(airportCode, dateTime, w));
+		return stored;
+	}
 
-		if (!weatherData.isEmpty()) {
-			return weatherData.getFirst();
-		}
+	private WeatherData cachedForecast(String airportCode, LocalDateTime dateTime) {
+		var hours = hourlyCache.get(airportCode);
+		var bucket = hours == null ? null : hours.get(dateTime.truncatedTo(ChronoUnit.HOURS));
+		return bucket != null && bucket.expiresAt() - System.nanoTime() > 0 ? bucket.weather() : null;
+	}
 
-		return fetchAndSaveExternalWeatherData(airportCode, dateTime);
+	/**
+	 * Indexes a weather point under the hour of {@code dateTime} for the airport, dropping that airport's expired hours.
+	 */
+	private void cache(String airportCode, LocalDateTime dateTime, WeatherData weather) {
+		long now = System.nanoTime();
+		var hours = hourlyCache.computeIfAbsent(airportCode, k -> new ConcurrentHashMap<>());
+		hours.values().removeIf(bucket -> bucket.expiresAt() - now <= 0);
+		hours.put(dateTime.truncatedTo(ChronoUnit.HOURS), new Bucket(weather, now + props.getWeather().getCacheTtl().toNanos()));
 	}
 
+	/**
+	 * On a miss, stores every hourly point of the forecast for the airport in one batch, so later lookups for nearby
+	 * times are served locally, and returns the point for the requested hour. Times outside the forecast horizon
+	 * fall back to the current observation stamped with the requested time.
+	 */
 	private WeatherData fetchAndSaveExternalWeatherData(String airportCode, LocalDateTime dateTime) {
 		Airport airport = airportRepository.findByCode(airportCode)
 				.orElseThrow(() -> new IllegalArgumentException("Invalid airport code: " + airportCode));
 
-		String url = "https://api.open-meteo.com/v1/forecast?latitude=%f&longitude=%f&current=temperature_2m,wind_speed_10m,weather_code,visibility&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m,weather_code,visibility";
-		var response = restTemplate.getForObject(String.format(url, airport.getLatitude(), airport.getLongitude()), WeatherRecord.class);
+		String url = String.format(Locale.ROOT, FORECAST_URL, props.getWeather().getBaseUrl(), airport.getLatitude(), airport.getLongitude());
+		var response = restTemplate.getForObject(url, WeatherRecord.class);
+		if (response == null) {
+			return WeatherData.builder().build();
+		}
+		zones.put(airportCode, zone(response.timezone()).orElseGet(() -> ZoneOffset.ofTotalSeconds(response.utcOffsetSeconds())));
+
+		List<WeatherData> hourly = hourlyForecast(airport, response.hourly());
+		if (!hourly.isEmpty()) {
+			saveNewHours(airport, hourly);
+			hourly.forEach(w -> cache(airportCode, w.getDateTime(), w));
+			var nearest = hourly.stream()
+					.min(Comparator.comparing(w -> Duration.between(w.getDateTime(), dateTime).abs()))
+					.filter(w -> Duration.between(w.getDateTime(), dateTime).abs().compareTo(Duration.ofHours(1)) <= 0);
+			if (nearest.isPresent()) {
+				return nearest.get();
+			}
+		}
+
+		WeatherData newWeatherData = WeatherData.builder()
+				.airport(airport)
+				.dateTime(dateTime)
+				.temperature(response.current().temperature2m())
+				.windSpeed(response.current().windSpeed10m())
+				.visibility(response.current().visibility())
+				.conditions(response.current().conditions() != null ? response.current().conditions()
+						: String.valueOf(response.current().weatherCode()))
+				.severeWeather(response.current().severeWeather())
+				.windDirection(response.current().windDirection())
+				.build();
+		var saved = weatherDataRepository.save(newWeatherData);
+		cache(airportCode, dateTime, saved);
+		return saved;
+	}
 
-		if (response != null) {
-			WeatherData newWeatherData = WeatherData.builder()
+	private List<WeatherData> hourlyForecast(Airport airport, WeatherRecord.HourlyWeather hourly) {
+		if (hourly == null || hourly.time() == null) {
+			return List.of();
+		}
+		List<WeatherData> points = new ArrayList<>(hourly.time().size());
+		for (int i = 0; i < hourly.time().size(); i++) {
+			Integer code = valueAt(hourly.weatherCode(), i);
+			points.add(WeatherData.builder()
+					.id(UUID.randomUUID())
 					.airport(airport)
-					.dateTime(dateTime)
-					.temperature(response.current().temperature2m())
-					.windSpeed(response.current().windSpeed10m())
-					.visibility(response.current().visibility())
-					.conditions(String.valueOf(response.current().conditions()))
-					.severeWeather(response.current().severeWeather())
-					.windDirection(response.current().windDirection())
-					.build();
-			return weatherDataRepository.save(newWeatherData);
+					.dateTime(LocalDateTime.parse(hourly.time().get(i)))
+					.temperature(valueAt(hourly.temperature2m(), i))
+					.windSpeed(valueAt(hourly.windSpeed10m(), i))
+					.visibility(valueAt(hourly.visibility(), i))
+					.conditions(code == null ? null : String.valueOf(code))
+					.precipitationProbability(valueAt(hourly.precipitationProbability(), i))
+					.severeWeather(false)
+					.build());
 		}
-		return WeatherData.builder().build();
+		return points;
+	}
+
+	/**
+	 * Batch-inserts the points, skipping hours already stored for the airport; the unique (airport_id, date_time) index
+	 * makes concurrent fetches of the same forecast skip each other's rows.
+	 */
+	private void saveNewHours(Airport airport, List<WeatherData> points) {
+		List<Object[]> rows = new ArrayList<>(points.size());
+		for (WeatherData w : points) {
+			rows.add(new Object[] {w.getId(), airport.getId(), Timestamp.valueOf(w.getDateTime()), w.getTemperature(),
+					w.getWindSpeed(), w.getVisibility(), w.getConditions(), w.getSevereWeather(), w.getPrecipitationProbability()});
+		}
+		int inserted = Arrays.stream(jdbcTemplate.batchUpdate(INSERT_WEATHER, rows)).map(n -> Math.max(n, 0)).sum();
+		if (inserted > 0) {
+			log.info("Stored {} hourly forecast points for {}", inserted, airport.getCode());
+		}
+	}
+
+	private static <T> T valueAt(List<T> values, int index) {
+		return values == null || index >= values.size() ? null : values.get(index);
+	}
+
+	/**
+	 * An airport and either the start of the forecast window or a single hour outside it.
+	 */
+	private record LoadKey(String airportCode, LocalDateTime start) {
+	}
+
+	private record Bucket(WeatherData weather, long expiresAt) {
 	}
 }
@@ -0,0 +1,121 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.WeatherData;
+import io.ai.agent.record.WeatherAnalysis;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Rule-based weather severity from the numeric observation fields: wind speed, visibility, WMO weather code and
+ * precipitation probability. Any severe-level rule makes the analysis severe; caution-level rules only add alerts.
+ * Thresholds come from {@code prediction.weather}.
+ */
+@Service
+@RequiredArgsConstructor
+public class WeatherSeverityClassifier {
+
+	private final ConfigProps props;
+
+	/**
+	 * Classifies observations keyed by airport code; airports without an observation are reported as unknown.
+	 */
+	public WeatherAnalysis classify(Map<String, WeatherData> weatherByAirport) {
+		var rules = props.getWeather();
+		List<String> alerts = new ArrayList<>();
+		var summary = new StringJoiner(" ");
+		boolean severe = false;
+		for (var entry : weatherByAirport.entrySet()) {
+			String airport = entry.getKey();
+			WeatherData weather = entry.getValue();
+			if (weather == null) {
+				summary.add(airport + ": no weather data.");
+				continue;
+			}
+			Integer code = weatherCode(weather);
+			summary.add(String.format("%s: %s, wind %s km/h, visibility %s m, precipitation %s%%.", airport,
+					code == null ? "conditions unknown" : describe(code) + " (WMO " + code + ")",
+					orUnknown(weather.getWindSpeed()), orUnknown(weather.getVisibility()), orUnknown(weather.getPrecipitationProbability())));
+
+			if (Boolean.TRUE.equals(weather.getSevereWeather())) {
+				severe = true;
+				alerts.add(airport + ": severe weather reported");
+			}
+			if (code != null && rules.getSevereCodes().contains(code)) {
+				severe = true;
+				alerts.add(airport + ": " + describe(code));
+			}
+			else if (code != null && rules.getCautionCodes().contains(code)) {
+				alerts.add(airport + ": " + describe(code));
+			}
+			if (weather.getWindSpeed() != null && weather.getWindSpeed() >= rules.getSevereWindSpeed()) {
+				severe = true;
+				alerts.add(airport + ": high winds " + weather.getWindSpeed() + " km/h");
+			}
+			else if (weather.getWindSpeed() != null && weather.getWindSpeed() >= rules.getCautionWindSpeed()) {
+				alerts.add(airport + ": strong winds " + weather.getWindSpeed() + " km/h");
+			}
+			if (weather.getVisibility() != null && weather.getVisibility() < rules.getSevereVisibility()) {
+				severe = true;
+				alerts.add(airport + ": very low visibility " + weather.getVisibility() + " m");
+			}
+			else if (weather.getVisibility() != null && weather.getVisibility() < rules.getCautionVisibility()) {
+				alerts.add(airport + ": reduced visibility " + weather.getVisibility() + " m");
+			}
+			if (weather.getPrecipitationProbability() != null
+					&& weather.getPrecipitationProbability() >= rules.getSeverePrecipitationProbability()) {
+				severe = true;
+				alerts.add(airport + ": precipitation likely (" + weather.getPrecipitationProbability() + "%)");
+			}
+		}
+		return WeatherAnalysis.builder()
+				.summary((severe ? "Severe weather expected. " : alerts.isEmpty() ? "No significant weather. " : "Minor weather impacts. ")
+						+ summary)
+				.alerts(alerts)
+				.severe(severe)
+				.build();
+	}
+
+	private static Integer weatherCode(WeatherData weather) {
+		try {
+			return weather.getConditions() == null ? null : Integer.valueOf(weather.getConditions().trim());
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String orUnknown(Object value) {
+		return value == null ? "unknown" : value.toString();
+	}
+
+	/**
+	 * WMO 4677 present-weather codes as used by Open-Meteo.
+	 */
+	private static String describe(int code) {
+		return switch (code) {
+			case 0 -> "clear sky";
+			case 1, 2, 3 -> "partly cloudy";
+			case 45, 48 -> "fog";
+			case 51, 53, 55 -> "drizzle";
+			case 56, 57 -> "freezing drizzle";
+			case 61, 63 -> "rain";
+			case 65 -> "heavy rain";
+			case 66, 67 -> "freezing rain";
+			case 71, 73 -> "snow";
+			case 75 -> "heavy snow";
+			case 77 -> "snow grains";
+			case 80, 81 -> "rain showers";
+			case 82 -> "violent rain showers";
+			case 85, 86 -> "snow showers";
+			case 95 -> "thunderstorm";
+			case 96, 99 -> "thunderstorm with hail";
+			default -> "weather code " + code;
+		};
+	}
+}
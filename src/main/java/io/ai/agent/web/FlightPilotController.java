@@ -3,24 +3,48 @@ package io.ai.agent.web;
 import com.embabel.agent.api.common.autonomy.AgentInvocation;
 import com.embabel.agent.core.AgentPlatform;
 import io.ai.agent.DelayPredictCoPilot;
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.AirlinePrediction;
 import io.ai.agent.record.AirlineRecord;
 import io.ai.agent.record.AirportRecord;
+import io.ai.agent.record.FlexiblePredictionResponse;
+import io.ai.agent.record.PredictionJob;
 import io.ai.agent.record.PredictionRequest;
 import io.ai.agent.record.PredictionResponse;
+import io.ai.agent.service.BatchPredictionService;
 import io.ai.agent.service.DataIngestionService;
+import io.ai.agent.service.EmbeddingPipeline;
+import io.ai.agent.service.FastPredictionService;
+import io.ai.agent.service.FlexibleDateService;
+import io.ai.agent.service.LlmResponseCache;
+import io.ai.agent.service.PredictionCache;
+import io.ai.agent.service.PredictionJobService;
+import io.ai.agent.service.PredictionStreams;
 import io.ai.agent.service.ReferenceDataService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -29,15 +53,123 @@ public class FlightPilotController {
 
 	private final DelayPredictCoPilot delayPredictCoPilot;
 	private final DataIngestionService dataIngestionService;
+	private final EmbeddingPipeline embeddingPipeline;
 	private final AgentPlatform agentPlatform;
 	private final ReferenceDataService referenceDataService;
+	private final PredictionCache predictionCache;
+	private final LlmResponseCache llmResponseCache;
+	private final FastPredictionService fastPredictionService;
+	private final PredictionStreams predictionStreams;
+	private final PredictionJobService predictionJobService;
+	private final BatchPredictionService batchPredictionService;
+	private final FlexibleDateService flexibleDateService;
+	private final ExecutorService ioExecutor;
+	private final ConfigProps props;
 
+	/**
+	 * With {@code async=true} the prediction runs as a background job: responds 202 with the job, whose result is
+	 * polled from {@code /predict/{id}} or delivered to the configured webhook.
+	 */
 	@PostMapping("/predict")
-	public ResponseEntity<PredictionResponse> predictDelays(@RequestBody PredictionRequest request) {
-		AgentInvocation<PredictionResponse> agentCall = AgentInvocation.builder(agentPlatform)
-				.options(option -> option.verbosity(v -> v.showPrompts(true).showPlanning(true).showLlmResponses(true)))
-				.build(PredictionResponse.class);
-		return ResponseEntity.ok(agentCall.invoke(request));
+	public ResponseEntity<?> predictDelays(@RequestBody PredictionRequest request,
+			@RequestParam(value = "async", defaultValue = "false") boolean async) {
+		AgentInvocation<PredictionResponse> agentCall = agentInvocation();
+		if (!async) {
+			return ResponseEntity.ok(predictionCache.get(request, () -> agentCall.invoke(request)));
+		}
+		try {
+			var job = predictionJobService.submit(request, () -> predictionCache.get(request, () -> agentCall.invoke(request)));
+			return ResponseEntity.accepted()
+					.location(URI.create("/api/v1/predict/" + job.id()))
+					.body(job);
+		}
+		catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+		}
+	}
+
+	@GetMapping("/predict/{id}")
+	public ResponseEntity<PredictionJob> getPredictionJob(@PathVariable String id) {
+		return ResponseEntity.of(predictionJobService.find(id));
+	}
+
+	/**
+	 * Streams a {@code prediction} event per airline as its chain completes, then a {@code summary} event with the
+	 * ordered response.
+	 */
+	@PostMapping(value = "/predict/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter predictDelaysStream(@RequestBody PredictionRequest request) {
+		var emitter = new SseEmitter(props.getRequestTimeout().multipliedBy(2).toMillis());
+		ioExecutor.execute(() -> {
+			// One event per airline: a late subscriber, or a cache hit racing a background refresh, gets the airlines it
+			// missed from the final response and never the same airline twice
+			Set<String> delivered = ConcurrentHashMap.newKeySet();
+			Consumer<AirlinePrediction> deliver = prediction -> {
+				if (delivered.add(prediction.airlineCode())) {
+					sendEvent(emitter, "prediction", prediction);
+				}
+			};
+			try (var subscription = predictionStreams.subscribe(request, deliver)) {
+				AgentInvocation<PredictionResponse> agentCall = agentInvocation();
+				var response = predictionCache.get(request, () -> agentCall.invoke(request));
+				subscription.close();
+				response.predictions().forEach(deliver);
+				sendEvent(emitter, "summary", response);
+				emitter.complete();
+			}
+			catch (Exception e) {
+				emitter.completeWithError(e);
+			}
+		});
+		return emitter;
+	}
+
+	/**
+	 * Streams a {@code result} event per request as it completes, then {@code complete}.
+	 */
+	@PostMapping(value = "/predict/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter predictDelaysBatch(@RequestBody List<PredictionRequest> requests) {
+		if (requests.size() > props.getBatch().getMaxRequests()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Batch size " + requests.size() + " exceeds the limit of " + props.getBatch().getMaxRequests());
+		}
+		var emitter = new SseEmitter(props.getBatch().getTimeout().toMillis());
+		var batch = ioExecutor.submit(() -> {
+			try {
+				AgentInvocation<PredictionResponse> agentCall = agentInvocation();
+				batchPredictionService.predict(requests,
+						request -> predictionCache.get(request, () -> agentCall.invoke(request)),
+						result -> sendEvent(emitter, "result", result));
+				sendEvent(emitter, "complete", Map.of("count", requests.size()));
+				emitter.complete();
+			}
+			catch (Exception e) {
+				emitter.completeWithError(e);
+			}
+		});
+		// Client gone or stream timed out: interrupting the batch cancels the predictions it has not delivered
+		emitter.onCompletion(() -> batch.cancel(true));
+		emitter.onTimeout(() -> batch.cancel(true));
+		emitter.onError(e -> batch.cancel(true));
+		return emitter;
+	}
+
+	/**
+	 * Ranks day/airline options across travelDate ± flexibilityDays on the statistical path.
+	 */
+	@PostMapping("/predict/flexible")
+	public ResponseEntity<FlexiblePredictionResponse> predictDelaysFlexible(@RequestBody PredictionRequest request) {
+		return ResponseEntity.ok(flexibleDateService.sweep(request));
+	}
+
+	@PostMapping("/predict/fast")
+	public ResponseEntity<PredictionResponse> predictDelaysFast(@RequestBody PredictionRequest request) {
+		return ResponseEntity.ok(fastPredictionService.predict(request));
+	}
+
+	@GetMapping("/cache/llm")
+	public ResponseEntity<LlmResponseCache.Stats> getLlmCacheStats() {
+		return ResponseEntity.ok(llmResponseCache.stats());
 	}
 
 	@GetMapping("/airports")
@@ -58,14 +190,34 @@ public class FlightPilotController {
 	}
 
 	@PostMapping("/data/process-embeddings")
-	public ResponseEntity<Map<String, String>> processEmbeddings() {
-		dataIngestionService.processEmbeddings();
+	public ResponseEntity<Map<String, String>> processEmbeddings(@RequestParam(value = "full", defaultValue = "false") boolean full) {
+		dataIngestionService.processEmbeddings(full);
 		return ResponseEntity.ok(Map.of("status", "Embedding processing started"));
 	}
 
+	@GetMapping("/data/embeddings")
+	public ResponseEntity<EmbeddingPipeline.Stats> getEmbeddingStats() {
+		return ResponseEntity.ok(embeddingPipeline.stats());
+	}
+
 	@GetMapping("/")
 	public String index() {
 		return "index";
 	}
 
+	private AgentInvocation<PredictionResponse> agentInvocation() {
+		return AgentInvocation.builder(agentPlatform)
+				.options(option -> option.verbosity(v -> v.showPrompts(true).showPlanning(true).showLlmResponses(true)))
+				.build(PredictionResponse.class);
+	}
+
+	private void sendEvent(SseEmitter emitter, String name, Object data) {
+		try {
+			emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 }
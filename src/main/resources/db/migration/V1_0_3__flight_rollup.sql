@@ -0,0 +1,62 @@
+-- Per route, airline and service date delay rollup, maintained on ingestion
+CREATE TABLE IF NOT EXISTS flight_daily_rollup (
+    origin_id UUID NOT NULL REFERENCES airport(id),
+    destination_id UUID NOT NULL REFERENCES airport(id),
+    airline_id UUID NOT NULL REFERENCES airline(id),
+    service_date DATE NOT NULL,
+    flight_count INTEGER NOT NULL DEFAULT 0,
+    delay_sum BIGINT NOT NULL DEFAULT 0,
+    on_time_count INTEGER NOT NULL DEFAULT 0,
+    cancelled_count INTEGER NOT NULL DEFAULT 0,
+    delay_reasons JSONB NOT NULL DEFAULT '{}',
+    PRIMARY KEY (origin_id, destination_id, airline_id, service_date)
+);
+
+-- Delayed, cancelled and diverted flights only; feeds the recent-incident summary. Ingestion keeps the most recent
+-- incident-limit cancellations and delay-limit delays per route and airline.
+CREATE TABLE IF NOT EXISTS flight_incident (
+    id UUID PRIMARY KEY,
+    origin_id UUID NOT NULL REFERENCES airport(id),
+    destination_id UUID NOT NULL REFERENCES airport(id),
+    airline_id UUID NOT NULL REFERENCES airline(id),
+    scheduled_departure TIMESTAMP NOT NULL,
+    status VARCHAR(20),
+    delay_minutes INTEGER
+);
+
+CREATE INDEX IF NOT EXISTS idx_flight_incident_route_departure ON flight_incident(origin_id, destination_id, scheduled_departure);
+
+-- Backfill from existing flights with the prediction.* thresholds, passed in through spring.flyway.placeholders so that
+-- the backfilled rows agree with the ones FlightRollupService adds on ingestion
+INSERT INTO flight_daily_rollup (origin_id, destination_id, airline_id, service_date, flight_count, delay_sum,
+                                 on_time_count, cancelled_count, delay_reasons)
+SELECT origin_id, destination_id, airline_id, service_date, SUM(cnt), SUM(delay_sum), SUM(on_time), SUM(cancelled),
+       COALESCE(jsonb_object_agg(delay_reason, cnt) FILTER (WHERE delay_reason IS NOT NULL AND delay_reason <> ''), '{}'::jsonb)
+FROM (
+    SELECT origin_id, destination_id, airline_id, CAST(scheduled_departure AS DATE) AS service_date, delay_reason,
+           COUNT(*) AS cnt,
+           COALESCE(SUM(delay_minutes), 0) AS delay_sum,
+           COUNT(*) FILTER (WHERE delay_minutes <= ${acceptable-delay-minutes}) AS on_time,
+           COUNT(*) FILTER (WHERE status = 'CANCELLED') AS cancelled
+    FROM flight
+    WHERE origin_id IS NOT NULL AND destination_id IS NOT NULL AND airline_id IS NOT NULL
+      AND scheduled_departure IS NOT NULL
+    GROUP BY origin_id, destination_id, airline_id, CAST(scheduled_departure AS DATE), delay_reason
+) grouped
+GROUP BY origin_id, destination_id, airline_id, service_date
+ON CONFLICT DO NOTHING;
+
+INSERT INTO flight_incident (id, origin_id, destination_id, airline_id, scheduled_departure, status, delay_minutes)
+SELECT id, origin_id, destination_id, airline_id, scheduled_departure, status, delay_minutes
+FROM (
+    SELECT id, origin_id, destination_id, airline_id, scheduled_departure, status, delay_minutes,
+           status IN ('CANCELLED', 'DIVERTED') AS cancelled,
+           ROW_NUMBER() OVER (PARTITION BY origin_id, destination_id, airline_id, status IN ('CANCELLED', 'DIVERTED')
+                              ORDER BY scheduled_departure DESC) AS rn
+    FROM flight
+    WHERE origin_id IS NOT NULL AND destination_id IS NOT NULL AND airline_id IS NOT NULL
+      AND scheduled_departure IS NOT NULL
+      AND (delay_minutes > ${delay-minutes} OR status IN ('DELAYED', 'CANCELLED', 'DIVERTED'))
+) ranked
+WHERE rn <= CASE WHEN cancelled THEN ${incident-limit} ELSE ${delay-limit} END
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,9 @@
+-- One weather point per airport and hour, so concurrent forecast fetches can insert with ON CONFLICT DO NOTHING
+DELETE FROM weather_data w
+USING weather_data d
+WHERE w.airport_id = d.airport_id
+  AND w.date_time = d.date_time
+  AND w.id > d.id;
+
+DROP INDEX IF EXISTS idx_weather_airport_time;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_weather_airport_time ON weather_data(airport_id, date_time);
@@ -0,0 +1,100 @@
+package io.ai.agent.config;
+
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PromptTemplateTest {
+
+	private static final Object[] ARGS = {"JFK", 42, 3.14159, "LAX"};
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"Route %s to %4$s",
+			"%s waited %d minutes at %.1f%% load",
+			"%2$d then %1$s then %s",
+			"%s and again %<s, then %s",
+			"%1$s-%<s %3$.2f %<e",
+			"[%-6s] [%5d] [%08.3f]%n",
+			"100%% literal, no placeholders"})
+	void formatsLikeStringFormat(String template) {
+		assertThat(PromptTemplate.compile(template).format(ARGS)).isEqualTo(String.format(Locale.getDefault(), template, ARGS));
+	}
+
+	@Test
+	void relativeIndexReusesThePreviousArgumentWithoutAdvancing() {
+		assertThat(PromptTemplate.compile("%s %<s %s").format("a", "b")).isEqualTo("a a b");
+	}
+
+	@Test
+	void rejectsARelativeIndexWithoutAPreviousArgument() {
+		assertThatThrownBy(() -> PromptTemplate.compile("%<s")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rendersInFullWithinBudget() {
+		var rendered = PromptTemplate.compile("Route %s to %s: %s").render(100, new Object[] {"JFK", "LAX", "on time"}, 2);
+
+		assertThat(rendered.text()).isEqualTo("Route JFK to LAX: on time");
+		assertThat(rendered.truncated()).isFalse();
+		assertThat(rendered.tokens()).isEqualTo(rendered.fullTokens());
+	}
+
+	@Test
+	void shortensElasticArgumentsInPriorityOrderAtEntryBoundaries() {
+		String incidents = entries("incident", 40);
+		String context = entries("context", 40);
+		var template = PromptTemplate.compile("Context:\n%s\nIncidents:\n%s\nAnswer as JSON.");
+
+		var rendered = template.render(150, new Object[] {context, incidents}, 1, 0);
+
+		assertThat(rendered.truncated()).isTrue();
+		assertThat(rendered.tokens()).isLessThanOrEqualTo(150);
+		assertThat(rendered.fullTokens()).isGreaterThan(150);
+		// the context is untouched because shortening the incidents was enough
+		assertThat(rendered.text()).contains(context);
+		assertThat(rendered.text()).containsPattern("incident \\d+ \\[truncated]\nAnswer as JSON\\.$");
+	}
+
+	@Test
+	void movesOnToTheNextElasticArgumentWhenTheFirstIsNotEnough() {
+		var rendered = PromptTemplate.compile("%s|%s|%s").render(60,
+				new Object[] {entries("a", 50), "fixed", entries("b", 5)}, 2, 0);
+
+		assertThat(rendered.tokens()).isLessThanOrEqualTo(60);
+		assertThat(rendered.text()).contains("|fixed|");
+		assertThat(rendered.text()).startsWith("a 0; ");
+	}
+
+	@Test
+	void measuresAndShortensTheFormattedTextOfNonStringSpecifiers() {
+		// Padding makes the formatted argument far longer than the raw one; it must be cut, not the raw value
+		var rendered = PromptTemplate.compile("[%-400s]").render(25, new Object[] {"short; value"}, 0);
+
+		assertThat(rendered.truncated()).isTrue();
+		assertThat(rendered.tokens()).isLessThanOrEqualTo(25);
+		assertThat(rendered.text()).isEqualTo("[short [truncated]]");
+	}
+
+	@Test
+	void shortensNonStringArguments() {
+		var record = new Incidents(entries("delay", 30));
+		var rendered = PromptTemplate.compile("%s").render(20, new Object[] {record}, 0);
+
+		assertThat(rendered.tokens()).isLessThanOrEqualTo(20);
+		assertThat(rendered.text()).startsWith("Incidents[text=delay 0; ");
+	}
+
+	private static String entries(String prefix, int count) {
+		return IntStream.range(0, count).mapToObj(i -> prefix + " " + i).collect(Collectors.joining("; "));
+	}
+
+	private record Incidents(String text) {
+	}
+}
@@ -0,0 +1,81 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.BatchPredictionResult;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BatchPredictionServiceTest {
+
+	private final WeatherService weatherService = mock(WeatherService.class);
+	private final VectorStoreService vectorStoreService = mock(VectorStoreService.class);
+	private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ConfigProps props = new ConfigProps();
+	private final BatchPredictionService service = new BatchPredictionService(weatherService, vectorStoreService, ioExecutor, props);
+
+	@AfterEach
+	void tearDown() {
+		ioExecutor.shutdownNow();
+	}
+
+	@Test
+	void deliversEveryResultAndPrefetchesSharedLookupsOnce() {
+		var travelDate = LocalDateTime.of(2026, 3, 2, 9, 0);
+		var requests = List.of(request("JFK", "LAX", travelDate), request("JFK", "SFO", travelDate),
+				request("JFK", "LAX", travelDate));
+		List<BatchPredictionResult> results = new ArrayList<>();
+
+		service.predict(requests, r -> PredictionResponse.builder().origin(r.origin()).build(), results::add);
+
+		assertThat(results).extracting(BatchPredictionResult::index).containsExactlyInAnyOrder(0, 1, 2);
+		verify(weatherService, times(3)).getWeatherForecast(anyString(), any());
+		verify(vectorStoreService, times(1)).searchSimilarDocuments(anyString());
+	}
+
+	@Test
+	void stopsAndCancelsRemainingPredictionsWhenAResultCannotBeDelivered() {
+		props.getBatch().setParallelism(1);
+		var requests = IntStream.range(0, 20)
+				.mapToObj(i -> request("JFK", "LAX", LocalDateTime.of(2026, 3, 2, 9, 0).plusDays(i)))
+				.toList();
+		var predicted = new AtomicInteger();
+
+		assertThatThrownBy(() -> service.predict(requests, r -> {
+			predicted.incrementAndGet();
+			try {
+				Thread.sleep(20);
+			}
+			catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return PredictionResponse.builder().build();
+		}, result -> {
+			throw new UncheckedIOException(new IOException("Broken pipe"));
+		})).isInstanceOf(UncheckedIOException.class);
+
+		assertThat(predicted.get()).isLessThan(requests.size());
+	}
+
+	private static PredictionRequest request(String origin, String destination, LocalDateTime travelDate) {
+		return PredictionRequest.builder().origin(origin).destination(destination).travelDate(travelDate).build();
+	}
+}
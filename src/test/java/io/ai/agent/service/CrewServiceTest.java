@@ -0,0 +1,50 @@
+package io.ai.agent.service;
+
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.CrewSchedule;
+import io.ai.agent.repo.CrewScheduleRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CrewServiceTest {
+
+	private static final LocalDateTime MORNING = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+	private final CrewScheduleRepository repository = mock(CrewScheduleRepository.class);
+	private final CrewService crewService = new CrewService(repository);
+	private final Airline american = Airline.builder().code("AA").name("American").build();
+	private final Airline delta = Airline.builder().code("DL").name("Delta").build();
+
+	@Test
+	void rosterAnswersLikePerAirlineLookupsFromOneQuery() {
+		var duty = CrewSchedule.builder().airline(american).dutyStart(MORNING.minusHours(2)).dutyEnd(MORNING.plusHours(6)).build();
+		when(repository.findOverlapping(any(), any(), any())).thenReturn(List.of(duty));
+		when(repository.findCrewScheduleByAirline(american)).thenReturn(List.of(duty));
+
+		var roster = crewService.roster(List.of(american, delta), MORNING, MORNING.plusDays(3));
+
+		for (var departure : List.of(MORNING, MORNING.plusHours(6), MORNING.plusDays(1))) {
+			assertThat(roster.crewAvailability(american, departure)).isEqualTo(crewService.crewAvailability(american, departure));
+			assertThat(roster.crewAvailability(delta, departure).crewAvailable()).isFalse();
+		}
+		assertThat(roster.crewAvailability(american, MORNING).crewAvailable()).isTrue();
+		verify(repository, times(1)).findOverlapping(any(), any(), any());
+	}
+
+	@Test
+	void emptyRosterSkipsTheQuery() {
+		var roster = crewService.roster(List.of(), MORNING, MORNING);
+
+		assertThat(roster.crewAvailability(american, MORNING).crewAvailable()).isFalse();
+		verify(repository, never()).findOverlapping(any(), any(), any());
+	}
+}
@@ -0,0 +1,95 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EmbeddingPipelineTest {
+
+	private final VectorStore vectorStore = mock(VectorStore.class);
+	private final ConfigProps props = new ConfigProps();
+	private final EmbeddingPipeline pipeline = new EmbeddingPipeline(vectorStore, mock(VectorStoreService.class), props);
+
+	@BeforeEach
+	void setUp() {
+		props.setVector(new ConfigProps.Vector());
+		props.getVector().setBatchSize(10);
+		props.getVector().setEmbeddingWorkers(1);
+		props.getVector().setFlushInterval(Duration.ofMillis(10));
+		props.getVector().setEmbeddingRetryBackoff(Duration.ofMillis(1));
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		pipeline.stop();
+	}
+
+	@Test
+	void retriesAFailedBatchUntilItIsStored() throws InterruptedException {
+		doThrow(new IllegalStateException("embedding model unavailable"))
+				.doThrow(new IllegalStateException("embedding model unavailable"))
+				.doNothing()
+				.when(vectorStore).add(any());
+		pipeline.start();
+
+		pipeline.submit(documents(3));
+		pipeline.stop();
+
+		// two failed attempts, then every batch is stored
+		verify(vectorStore, atLeast(3)).add(any());
+		assertThat(pipeline.stats()).isEqualTo(new EmbeddingPipeline.Stats(3, 0, 0, 0));
+	}
+
+	@Test
+	void keepsDocumentsThatFailEveryAttemptForTheNextRun() throws InterruptedException {
+		props.getVector().setEmbeddingRetries(1);
+		doThrow(new IllegalStateException("embedding model unavailable")).when(vectorStore).add(any());
+		pipeline.start();
+
+		pipeline.submit(documents(3));
+		pipeline.stop();
+
+		assertThat(pipeline.stats()).isEqualTo(new EmbeddingPipeline.Stats(0, 0, 3, 0));
+
+		doNothing().when(vectorStore).add(any());
+		pipeline.start();
+		assertThat(pipeline.retryFailed()).isEqualTo(3);
+		pipeline.stop();
+
+		assertThat(pipeline.stats()).isEqualTo(new EmbeddingPipeline.Stats(3, 0, 0, 0));
+	}
+
+	@Test
+	void countsFailedDocumentsBeyondTheQueueCapacityAsDropped() throws InterruptedException {
+		props.getVector().setEmbeddingRetries(0);
+		props.getVector().setQueueCapacity(2);
+		doThrow(new IllegalStateException("embedding model unavailable")).when(vectorStore).add(any());
+		pipeline.start();
+
+		pipeline.submit(documents(3));
+		pipeline.stop();
+
+		assertThat(pipeline.stats()).isEqualTo(new EmbeddingPipeline.Stats(0, 0, 2, 1));
+	}
+
+	private static List<Document> documents(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> new Document("Flight AA" + i))
+				.toList();
+	}
+}
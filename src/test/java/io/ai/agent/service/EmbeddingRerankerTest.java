@@ -0,0 +1,86 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EmbeddingRerankerTest {
+
+	private static final List<float[]> QUERY = List.of(new float[] {1, 1, 0});
+
+	private final ConfigProps props = new ConfigProps();
+	private final EmbeddingReranker reranker = new EmbeddingReranker(props);
+
+	EmbeddingRerankerTest() {
+		props.setVector(new ConfigProps.Vector());
+	}
+
+	@Test
+	void prefersADiverseDocumentOverAMoreRelevantRedundantOne() {
+		var best = document("best");
+		var similar = document("similar");
+		var different = document("different");
+		var embeddings = Map.of(
+				"best", new float[] {0.8f, 0.6f, 0},
+				"similar", new float[] {0.9f, 0.1f, 0},
+				"different", new float[] {0, 1, 0});
+
+		assertThat(reranker.rerank(List.of(similar, different, best), embeddings, QUERY, 2))
+				.extracting(Document::getId).containsExactly("best", "different");
+
+		// relevance alone would keep the redundant document
+		props.getVector().setMmrLambda(1.0);
+		assertThat(reranker.rerank(List.of(similar, different, best), embeddings, QUERY, 2))
+				.extracting(Document::getId).containsExactly("best", "similar");
+	}
+
+	@Test
+	void dropsNearDuplicatesOfSelectedDocuments() {
+		var embeddings = Map.of(
+				"original", new float[] {1, 0, 0},
+				"copy", new float[] {0.99f, 0.01f, 0},
+				"other", new float[] {0, 0, 1});
+
+		var ranked = reranker.rerank(List.of(document("original"), document("copy"), document("other")), embeddings,
+				List.of(new float[] {1, 0, 0}), 3);
+
+		assertThat(ranked).extracting(Document::getId).containsExactly("original", "other");
+	}
+
+	@Test
+	void skipsCandidatesWithoutStoredEmbeddings() {
+		var ranked = reranker.rerank(List.of(document("missing"), document("stored")),
+				Map.of("stored", new float[] {1, 0, 0}), QUERY, 2);
+
+		assertThat(ranked).extracting(Document::getId).containsExactly("stored");
+	}
+
+	@Test
+	void averagesRelevanceOverQueryViews() {
+		var embeddings = Map.of(
+				"first", new float[] {1, 0, 0},
+				"both", new float[] {1, 1, 0});
+		List<float[]> views = List.of(new float[] {1, 0, 0}, new float[] {0, 1, 0});
+
+		var ranked = reranker.rerank(List.of(document("first"), document("both")), embeddings, views, 1);
+
+		assertThat(ranked).extracting(Document::getId).containsExactly("both");
+	}
+
+	@Test
+	void cosineOfAZeroVectorIsZero() {
+		assertThat(EmbeddingReranker.cosine(new float[] {0, 0}, new float[] {1, 0})).isZero();
+		assertThat(EmbeddingReranker.cosine(new float[] {3, 4}, new float[] {6, 8})).isCloseTo(1.0, within(1e-9));
+		assertThat(EmbeddingReranker.cosine(new float[] {1, 0}, new float[] {0, 1})).isZero();
+	}
+
+	private static Document document(String id) {
+		return Document.builder().id(id).text(id).build();
+	}
+}
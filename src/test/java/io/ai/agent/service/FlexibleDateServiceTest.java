@@ -0,0 +1,116 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airline;
+import io.ai.agent.record.FlexiblePredictionResponse.DateOption;
+import io.ai.agent.record.FlightAuxStats;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.repo.FlightRepository;
+import io.ai.agent.service.FlightRollupService.DailyRollup;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlexibleDateServiceTest {
+
+	private static final LocalDateTime TRAVEL = LocalDateTime.of(2026, 3, 10, 9, 0);
+
+	private final Airline american = Airline.builder().code("AA").name("American").build();
+	private final Airline delta = Airline.builder().code("DL").name("Delta").build();
+	private final ConfigProps props = new ConfigProps();
+	private final FlightRollupService flightRollupService = mock(FlightRollupService.class);
+	private final CrewService crewService = mock(CrewService.class);
+	private final StatsPredictionService statsPredictionService = spy(
+			new StatsPredictionService(flightRollupService, mock(RouteHistoryStore.class), props));
+	private final FlexibleDateService service = new FlexibleDateService(flightRollupService, mock(FlightRepository.class),
+			statsPredictionService, new WeatherSeverityClassifier(props), crewService, mock(WeatherService.class), props);
+
+	FlexibleDateServiceTest() {
+		when(crewService.roster(anyCollection(), any(), any())).thenReturn(mock(CrewService.Roster.class));
+	}
+
+	@Test
+	void slidesTheHistoryWindowAcrossTheFlexibleDays() {
+		when(flightRollupService.dailyRollups(anyString(), anyString(), any(), any())).thenReturn(List.of(
+				rollup(american, LocalDate.of(2026, 2, 9), 2, 20, 1, 0),
+				rollup(american, LocalDate.of(2026, 3, 1), 4, 40, 4, 0),
+				rollup(american, LocalDate.of(2026, 3, 9), 2, 40, 0, 2),
+				rollup(american, LocalDate.of(2026, 3, 10), 2, 0, 2, 0),
+				rollup(delta, LocalDate.of(2026, 3, 10), 1, 5, 1, 0)));
+
+		var response = service.sweep(request(1));
+
+		// one rollup read covering the history window of the first day up to the day before the last
+		verify(flightRollupService).dailyRollups("JFK", "LAX", LocalDate.of(2026, 2, 9), LocalDate.of(2026, 3, 10));
+		var stats = ArgumentCaptor.forClass(FlightAuxStats.class);
+		verify(statsPredictionService, times(4)).createStatisticalPrediction(any(), stats.capture(), any(), any());
+		assertThat(stats.getAllValues()).containsExactly(
+				// Mar 9: Feb 9 .. Mar 8
+				new FlightAuxStats(60.0 / 6, 500.0 / 6, 0.0, "", 6),
+				// Mar 10: Feb 10 .. Mar 9, Feb 9 retired
+				new FlightAuxStats(80.0 / 6, 400.0 / 6, 200.0 / 6, "", 6),
+				// Mar 11: Feb 11 .. Mar 10
+				new FlightAuxStats(80.0 / 8, 600.0 / 8, 200.0 / 8, "", 8),
+				// Delta has no history before Mar 11
+				new FlightAuxStats(5.0, 100.0, 0.0, "", 1));
+		assertThat(response.options())
+				.extracting(DateOption::date, option -> option.prediction().airlineCode())
+				.containsExactlyInAnyOrder(
+						tuple(LocalDate.of(2026, 3, 9), "AA"),
+						tuple(LocalDate.of(2026, 3, 10), "AA"),
+						tuple(LocalDate.of(2026, 3, 11), "AA"),
+						tuple(LocalDate.of(2026, 3, 11), "DL"));
+	}
+
+	@Test
+	void clampsFlexibilityToTheConfiguredMaximum() {
+		props.setMaxFlexibilityDays(2);
+		when(flightRollupService.dailyRollups(anyString(), anyString(), any(), any())).thenReturn(List.of(
+				rollup(american, LocalDate.of(2026, 2, 10), 1, 0, 1, 0)));
+
+		var response = service.sweep(request(30));
+
+		assertThat(response.flexibilityDays()).isEqualTo(2);
+		verify(flightRollupService).dailyRollups("JFK", "LAX", LocalDate.of(2026, 2, 8), LocalDate.of(2026, 3, 11));
+		// the only rollup leaves the window once the day is more than a month past it
+		assertThat(response.options()).extracting(DateOption::date)
+				.containsExactlyInAnyOrder(LocalDate.of(2026, 3, 8), LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 10));
+	}
+
+	@Test
+	void withoutFlexibilityOnlyTheTravelDayIsRanked() {
+		when(flightRollupService.dailyRollups(anyString(), anyString(), any(), any())).thenReturn(List.of(
+				rollup(american, LocalDate.of(2026, 3, 1), 1, 0, 1, 0)));
+
+		var response = service.sweep(request(null));
+
+		assertThat(response.flexibilityDays()).isZero();
+		assertThat(response.options()).extracting(DateOption::date).containsExactly(TRAVEL.toLocalDate());
+	}
+
+	private static PredictionRequest request(Integer flexibilityDays) {
+		return PredictionRequest.builder()
+				.origin("JFK")
+				.destination("LAX")
+				.travelDate(TRAVEL)
+				.flexibilityDays(flexibilityDays)
+				.build();
+	}
+
+	private static DailyRollup rollup(Airline airline, LocalDate date, long flights, long delaySum, long onTime, long cancelled) {
+		return new DailyRollup(airline, date, flights, delaySum, onTime, cancelled);
+	}
+}
@@ -0,0 +1,111 @@
+package io.ai.agent.service;
+
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.Airport;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightRow;
+import io.ai.agent.repo.AirlineRepository;
+import io.ai.agent.repo.AirportRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlightBulkWriterTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final AirlineRepository airlineRepository = mock(AirlineRepository.class);
+	private final AirportRepository airportRepository = mock(AirportRepository.class);
+	private final FlightRollupService flightRollupService = mock(FlightRollupService.class);
+	private FlightBulkWriter writer;
+
+	@BeforeEach
+	void setUp() {
+		var transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(airlineRepository.saveAndFlush(any())).thenAnswer(inv -> {
+			Airline airline = inv.getArgument(0);
+			airline.setId(UUID.randomUUID());
+			return airline;
+		});
+		when(airportRepository.saveAndFlush(any())).thenAnswer(inv -> {
+			Airport airport = inv.getArgument(0);
+			airport.setId(UUID.randomUUID());
+			return airport;
+		});
+		writer = new FlightBulkWriter(jdbcTemplate, new TransactionTemplate(transactionManager), airlineRepository,
+				airportRepository, flightRollupService);
+	}
+
+	@Test
+	void returnsAndRollsUpOnlyTheNewlyStoredFlights() {
+		var stored = flight("AA1");
+		var fresh = flight("AA2");
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class))).thenReturn(List.of(fresh.id()));
+
+		var written = writer.begin().write(List.of(stored, fresh, fresh));
+
+		assertThat(written).containsExactly(fresh);
+		verify(flightRollupService).apply(eq(List.of(fresh)), any(), any());
+	}
+
+	@Test
+	void skipsTheRollupWhenEveryFlightIsAlreadyStored() {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class))).thenReturn(List.of());
+
+		var load = writer.begin();
+
+		assertThat(load.write(List.of(flight("AA1")))).isEmpty();
+		assertThat(load.rows()).isZero();
+		verify(flightRollupService, never()).apply(any(), any(), any());
+	}
+
+	@Test
+	void forgetsAirlinesCreatedInABatchThatRolledBack() {
+		var flight = flight("AA1");
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class)))
+				.thenThrow(new DataIntegrityViolationException("batch failed"))
+				.thenReturn(List.of(flight.id()));
+		var load = writer.begin();
+
+		assertThatThrownBy(() -> load.write(List.of(flight))).isInstanceOf(DataIntegrityViolationException.class);
+		assertThat(load.airlines()).isEmpty();
+
+		load.write(List.of(flight));
+
+		// the rolled back airline is created again instead of being served from the cache
+		verify(airlineRepository, times(2)).saveAndFlush(any());
+		assertThat(load.airline("AA")).isNotNull();
+	}
+
+	private static FlightRow flight(String flightNumber) {
+		return FlightRow.builder()
+				.id(UUID.randomUUID())
+				.flightNumber(flightNumber)
+				.airlineCode("AA")
+				.originCode("JFK")
+				.destinationCode("LAX")
+				.scheduledDeparture(LocalDateTime.of(2026, 3, 2, 9, 15))
+				.delayMinutes(0)
+				.status(FlightStatus.ON_TIME)
+				.build();
+	}
+}
@@ -0,0 +1,124 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightRow;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightCsvReaderTest {
+
+	private static final String HEADER = "flightNumber,airlineCode,origin,destination,scheduledDeparture,actualDeparture,"
+			+ "delayMinutes,status,delayReason,aircraftType\n";
+
+	@TempDir
+	Path dir;
+
+	private final ConfigProps props = new ConfigProps();
+	private final FlightCsvReader reader = new FlightCsvReader(props);
+
+	@AfterEach
+	void tearDown() {
+		reader.shutdown();
+	}
+
+	@Test
+	void parsesEveryRowAcrossChunkBoundariesInFileOrder() throws IOException {
+		props.getIngestion().setChunkSize(DataSize.ofBytes(64));
+		props.getIngestion().setParallelism(3);
+		var csv = new StringBuilder(HEADER);
+		for (int i = 0; i < 200; i++) {
+			csv.append("AA%d,AA,JFK,LAX,2026-01-15T08:%02d,2026-01-15T08:%02d,%d,DELAYED,Weather,A321\n"
+					.formatted(i, i % 60, (i + 5) % 60, i));
+		}
+
+		List<FlightRow> rows = read(csv.toString());
+
+		assertThat(rows).hasSize(200);
+		for (int i = 0; i < rows.size(); i++) {
+			assertThat(rows.get(i).flightNumber()).isEqualTo("AA" + i);
+			assertThat(rows.get(i).delayMinutes()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void stripsCarriageReturnsAndReadsALastLineWithoutNewline() throws IOException {
+		List<FlightRow> rows = read(HEADER.replace("\n", "\r\n")
+				+ "AA1,AA,JFK,LAX,2026-01-15T08:00,2026-01-15T08:20,20,DELAYED,Crew,A321\r\n"
+				+ "DL2,DL,JFK,SFO,2026-01-15T09:00:30,2026-01-15T09:00:30,0,ON_TIME,,B738");
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0).aircraftType()).isEqualTo("A321");
+		assertThat(rows.get(1).flightNumber()).isEqualTo("DL2");
+		assertThat(rows.get(1).scheduledDeparture()).isEqualTo(LocalDateTime.of(2026, 1, 15, 9, 0, 30));
+		assertThat(rows.get(1).status()).isEqualTo(FlightStatus.ON_TIME);
+		assertThat(rows.get(1).delayReason()).isEmpty();
+		assertThat(rows.get(1).aircraftType()).isEqualTo("B738");
+	}
+
+	@Test
+	void keepsCommasAndEscapedQuotesInsideQuotedFields() throws IOException {
+		List<FlightRow> rows = read(HEADER
+				+ "AA1,AA,JFK,LAX,2026-01-15T08:00,2026-01-15T09:00,60,DELAYED,\"Weather, thunderstorms\",A321\n"
+				+ "AA2,AA,JFK,LAX,2026-01-15T10:00,2026-01-15T10:30,30,DELAYED,\"Gate \"\"B12\"\" change\",\"A321neo\"\n");
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0).delayReason()).isEqualTo("Weather, thunderstorms");
+		assertThat(rows.get(0).aircraftType()).isEqualTo("A321");
+		assertThat(rows.get(1).delayReason()).isEqualTo("Gate \"B12\" change");
+		assertThat(rows.get(1).aircraftType()).isEqualTo("A321neo");
+	}
+
+	@Test
+	void derivesTheSameIdForTheSameFlightOnEveryRead() throws IOException {
+		var csv = HEADER
+				+ "AA1,AA,JFK,LAX,2026-01-15T08:00,2026-01-15T08:20,20,DELAYED,Crew,A321\n"
+				+ "AA1,AA,JFK,LAX,2026-01-16T08:00,2026-01-16T08:00,0,ON_TIME,,A321\n";
+
+		List<FlightRow> first = read(csv);
+		List<FlightRow> second = read(csv);
+
+		assertThat(first).extracting(FlightRow::id).containsExactlyElementsOf(second.stream().map(FlightRow::id).toList());
+		assertThat(first.get(0).id()).isNotEqualTo(first.get(1).id());
+	}
+
+	@Test
+	void acceptsASpaceBetweenDateAndTime() throws IOException {
+		List<FlightRow> rows = read(HEADER + "AA1,AA,JFK,LAX,2026-01-15 08:00,2026-01-15 08:10:00,10,DELAYED,Crew,A321\n");
+
+		assertThat(rows.getFirst().scheduledDeparture()).isEqualTo(LocalDateTime.of(2026, 1, 15, 8, 0));
+		assertThat(rows.getFirst().actualDeparture()).isEqualTo(LocalDateTime.of(2026, 1, 15, 8, 10));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"2026/01/15T08:00", "2026-01-15X08:00", "2026-01-15T08-00", "2026-01-15T08:00-30",
+			"2026-0a-15T08:00", "2026--1-15T08:00", "15-01-2026 08:00"})
+	void rejectsMalformedDateTimes(String dateTime) throws IOException {
+		var csv = HEADER + "AA1,AA,JFK,LAX," + dateTime + ",2026-01-15T08:10,10,DELAYED,Crew,A321\n";
+
+		assertThatThrownBy(() -> read(csv)).isInstanceOf(DateTimeException.class);
+	}
+
+	private List<FlightRow> read(String csv) throws IOException {
+		Path file = Files.writeString(dir.resolve("flights.csv"), csv, StandardCharsets.UTF_8);
+		List<FlightRow> rows = new ArrayList<>();
+		reader.read(file, rows::addAll);
+		return rows;
+	}
+}
@@ -0,0 +1,91 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightRow;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FlightRollupServiceTest {
+
+	private static final LocalDateTime DEPARTURE = LocalDateTime.of(2026, 3, 2, 9, 15);
+
+	private final Map<String, UUID> airlines = Map.of("AA", UUID.randomUUID(), "DL", UUID.randomUUID());
+	private final Map<String, UUID> airports = Map.of("JFK", UUID.randomUUID(), "LAX", UUID.randomUUID());
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final ConfigProps props = new ConfigProps();
+	private final FlightRollupService service = new FlightRollupService(jdbcTemplate, props);
+
+	FlightRollupServiceTest() {
+		props.setAcceptableDelayMinutes(30);
+		props.setDelayMinutes(45);
+		props.setIncidentLimit(2);
+		props.setDelayLimit(3);
+	}
+
+	@Test
+	void foldsFlightsIntoRollupsWithTheConfiguredThresholdsAndPrunesIncidents() {
+		service.apply(List.of(
+				flight("AA", 20, FlightStatus.ON_TIME),
+				flight("AA", 50, FlightStatus.ON_TIME),
+				flight("AA", 0, FlightStatus.CANCELLED),
+				flight("DL", 10, FlightStatus.ON_TIME)), airlines::get, airports::get);
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(3)).batchUpdate(sql.capture(), rows.capture());
+		assertThat(sql.getAllValues()).satisfiesExactly(
+				upsert -> assertThat(upsert).startsWith("INSERT INTO flight_daily_rollup"),
+				insert -> assertThat(insert).startsWith("INSERT INTO flight_incident"),
+				prune -> assertThat(prune).startsWith("DELETE FROM flight_incident"));
+
+		var american = rows.getAllValues().get(0).stream()
+				.filter(row -> row[2].equals(airlines.get("AA")))
+				.findFirst()
+				.orElseThrow();
+		// 50 minutes is over the 30 minute acceptable delay, the cancellation with 0 minutes is not
+		assertThat(american).startsWith(airports.get("JFK"), airports.get("LAX"), airlines.get("AA"),
+				Date.valueOf(LocalDate.of(2026, 3, 2)), 3, 70L, 2, 1);
+		assertThat(rows.getAllValues().get(0)).hasSize(2);
+
+		// the 50 minute delay is over the 45 minute incident threshold
+		assertThat(rows.getAllValues().get(1)).hasSize(2);
+		assertThat(rows.getAllValues().get(2)).singleElement()
+				.isEqualTo(new Object[] {airports.get("JFK"), airports.get("LAX"), airlines.get("AA"), 2, 3});
+	}
+
+	@Test
+	void skipsIncidentWritesWhenTheBatchHasNone() {
+		service.apply(List.of(flight("AA", 10, FlightStatus.ON_TIME)), airlines::get, airports::get);
+
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+	}
+
+	private static FlightRow flight(String airline, int delay, FlightStatus status) {
+		return FlightRow.builder()
+				.id(UUID.randomUUID())
+				.airlineCode(airline)
+				.originCode("JFK")
+				.destinationCode("LAX")
+				.scheduledDeparture(DEPARTURE)
+				.delayMinutes(delay)
+				.status(status)
+				.build();
+	}
+}
@@ -0,0 +1,59 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LlmResponseCacheTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final MockEnvironment environment = new MockEnvironment()
+			.withProperty("embabel.models.default-llm", "openai/chat/geminilite")
+			.withProperty("embabel.models.llms.best", "openai/chat/gemini");
+
+	private LlmResponseCache cache() {
+		var cache = new LlmResponseCache(jdbcTemplate, new ConfigProps(), environment);
+		cache.init();
+		return cache;
+	}
+
+	@Test
+	void resolvesRolesToTheConfiguredModel() {
+		var cache = cache();
+
+		assertThat(cache.resolveModel("best")).isEqualTo("openai/chat/gemini");
+		assertThat(cache.resolveModel("auto")).isEqualTo("openai/chat/geminilite");
+	}
+
+	@Test
+	void switchingTheModelMissesPreviousAnswers() {
+		when(jdbcTemplate.queryForList(anyString(), anyString())).thenReturn(List.of());
+		var cache = cache();
+		var calls = new AtomicInteger();
+
+		cache.getOrCreate("auto", "system", "prompt", String.class, () -> "answer " + calls.incrementAndGet());
+		assertThat(cache.getOrCreate("auto", "system", "prompt", String.class, () -> "answer " + calls.incrementAndGet()))
+				.isEqualTo("answer 1");
+
+		environment.setProperty("embabel.models.default-llm", "openai/chat/gemini");
+		assertThat(cache.getOrCreate("auto", "system", "prompt", String.class, () -> "answer " + calls.incrementAndGet()))
+				.isEqualTo("answer 2");
+	}
+
+	@Test
+	void purgesExpiredRows() {
+		cache().purgeExpired();
+
+		verify(jdbcTemplate).update("DELETE FROM llm_response_cache WHERE expires_at <= now()");
+	}
+}
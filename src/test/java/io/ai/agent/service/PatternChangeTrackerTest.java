@@ -0,0 +1,52 @@
+package io.ai.agent.service;
+
+import io.ai.agent.record.FlightRow;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatternChangeTrackerTest {
+
+	private final PatternChangeTracker tracker = new PatternChangeTracker();
+
+	@Test
+	void recordsTheHourlyRouteAndAirlineKeysOfEachFlight() {
+		tracker.record(List.of(flight("AA", "JFK", "LAX", 9), flight("AA", "JFK", "LAX", 9), flight("DL", "JFK", "SFO", 17)));
+
+		assertThat(tracker.drain()).containsExactlyInAnyOrder(
+				"hourly:9", "route:JFK-LAX", "airline:AA",
+				"hourly:17", "route:JFK-SFO", "airline:DL");
+	}
+
+	@Test
+	void drainClearsTheTouchedKeys() {
+		tracker.record(List.of(flight("AA", "JFK", "LAX", 9)));
+
+		assertThat(tracker.drain()).hasSize(3);
+		assertThat(tracker.drain()).isEmpty();
+	}
+
+	@Test
+	void restoredKeysAreDrainedAgainWithNewOnes() {
+		tracker.record(List.of(flight("AA", "JFK", "LAX", 9)));
+		var failed = tracker.drain();
+
+		tracker.record(List.of(flight("DL", "JFK", "SFO", 17)));
+		tracker.restore(failed);
+
+		assertThat(tracker.drain()).containsExactlyInAnyOrder(
+				"hourly:9", "route:JFK-LAX", "airline:AA",
+				"hourly:17", "route:JFK-SFO", "airline:DL");
+	}
+
+	private static FlightRow flight(String airline, String origin, String destination, int hour) {
+		return FlightRow.builder()
+				.airlineCode(airline)
+				.originCode(origin)
+				.destinationCode(destination)
+				.scheduledDeparture(LocalDateTime.of(2026, 3, 2, hour, 30))
+				.build();
+	}
+}
@@ -0,0 +1,83 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.record.PredictionRequest;
+import io.ai.agent.record.PredictionResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PredictionCacheTest {
+
+	private static final LocalDateTime TRAVEL = LocalDateTime.of(2026, 3, 2, 9, 15);
+
+	private final ConfigProps props = new ConfigProps();
+	private final PredictionCache cache = new PredictionCache(props, mock(ExecutorService.class));
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void servesRepeatedAndEquivalentRequestsFromOneLoad() {
+		var first = cache.get(request("JFK", "LAX"), this::load);
+		var second = cache.get(request(" jfk", "lax "), this::load);
+
+		assertThat(second).isSameAs(first);
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void invalidatesOnlyTheIngestedRoutes() {
+		cache.get(request("JFK", "LAX"), this::load);
+		cache.get(request("JFK", "SFO"), this::load);
+
+		cache.invalidateRoutes(List.of("JFK-LAX"));
+		cache.get(request("JFK", "LAX"), this::load);
+		cache.get(request("JFK", "SFO"), this::load);
+
+		assertThat(loads).hasValue(3);
+	}
+
+	@Test
+	void doesNotStoreALoadThatStartedBeforeAnInvalidation() {
+		var stale = cache.get(request("JFK", "LAX"), () -> {
+			var response = load();
+			// ingestion lands while the prediction is running
+			cache.invalidateRoutes(List.of("JFK-LAX"));
+			return response;
+		});
+		var fresh = cache.get(request("JFK", "LAX"), this::load);
+
+		assertThat(fresh).isNotSameAs(stale);
+		assertThat(loads).hasValue(2);
+		assertThat(cache.get(request("JFK", "LAX"), this::load)).isSameAs(fresh);
+	}
+
+	@Test
+	void evictsTheOldestEntriesBeyondMaxEntries() throws InterruptedException {
+		props.getResultCache().setMaxEntries(2);
+		cache.get(request("JFK", "LAX"), this::load);
+		Thread.sleep(2);
+		cache.get(request("JFK", "SFO"), this::load);
+		Thread.sleep(2);
+		cache.get(request("JFK", "ORD"), this::load);
+
+		cache.get(request("JFK", "SFO"), this::load);
+		cache.get(request("JFK", "ORD"), this::load);
+		assertThat(loads).hasValue(3);
+		cache.get(request("JFK", "LAX"), this::load);
+		assertThat(loads).hasValue(4);
+	}
+
+	private PredictionResponse load() {
+		loads.incrementAndGet();
+		return PredictionResponse.builder().generatedAt(LocalDateTime.now()).build();
+	}
+
+	private static PredictionRequest request(String origin, String destination) {
+		return PredictionRequest.builder().origin(origin).destination(destination).travelDate(TRAVEL).build();
+	}
+}
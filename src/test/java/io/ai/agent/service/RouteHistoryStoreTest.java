@@ -0,0 +1,182 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airline;
+import io.ai.agent.entity.FlightStatus;
+import io.ai.agent.record.FlightAuxStats;
+import io.ai.agent.record.FlightRow;
+import io.ai.agent.repo.AirlineRepository;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RouteHistoryStoreTest {
+
+	private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+	private static final LocalDateTime TO = LocalDateTime.of(2026, 1, 31, 23, 59);
+
+	private final Airline american = Airline.builder().code("AA").name("American").build();
+	private final Airline delta = Airline.builder().code("DL").name("Delta").build();
+	private final Map<String, Airline> airlines = Map.of("AA", american, "DL", delta);
+
+	private final ResultSet flights = mock(ResultSet.class);
+	private final ResultSet loadedIds = mock(ResultSet.class);
+	private final AirlineRepository airlineRepository = mock(AirlineRepository.class);
+	private final ConfigProps props = new ConfigProps();
+	private List<Object[]> rows = List.of();
+	private Runnable duringLoad = () -> { };
+	private RouteHistoryStore store;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		var connection = mock(Connection.class);
+		var statement = mock(Statement.class);
+		var preparedStatement = mock(PreparedStatement.class);
+		var dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(flights);
+		when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+		when(preparedStatement.getConnection()).thenReturn(connection);
+		when(preparedStatement.executeQuery()).thenReturn(loadedIds);
+
+		int[] row = {-1};
+		when(flights.next()).thenAnswer(inv -> {
+			if (row[0] == -1) {
+				duringLoad.run();
+			}
+			return ++row[0] < rows.size();
+		});
+		when(flights.getString(anyInt())).thenAnswer(inv -> (String) rows.get(row[0])[(int) inv.getArgument(0) - 1]);
+		when(flights.getTimestamp(4)).thenAnswer(inv -> Timestamp.valueOf((LocalDateTime) rows.get(row[0])[3]));
+		when(flights.getInt(5)).thenAnswer(inv -> (int) rows.get(row[0])[4]);
+
+		var transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		var executor = mock(ExecutorService.class);
+		doAnswer(inv -> {
+			((Runnable) inv.getArgument(0)).run();
+			return null;
+		}).when(executor).execute(any());
+		when(airlineRepository.findAll()).thenReturn(List.of(american, delta));
+
+		props.getRouteHistory().setEnabled(true);
+		props.setAcceptableDelayMinutes(15);
+		props.setDelayMinutes(60);
+		props.setDelayLimit(3);
+		store = new RouteHistoryStore(dataSource, new TransactionTemplate(transactionManager), airlineRepository, executor, props);
+	}
+
+	@Test
+	void replaysBatchesIngestedDuringTheLoadThatTheSnapshotMissed() throws Exception {
+		rows = List.of(
+				row("AA", LocalDateTime.of(2026, 1, 10, 8, 0), 10, "ON_TIME"),
+				row("AA", LocalDateTime.of(2026, 1, 11, 8, 0), 50, "DELAYED"),
+				row("DL", LocalDateTime.of(2026, 1, 11, 9, 0), 0, null),
+				row("DL", LocalDateTime.of(2026, 1, 12, 9, 0), 0, "CANCELLED"));
+		var seen = flight("AA", LocalDateTime.of(2026, 1, 10, 8, 0), 10, FlightStatus.ON_TIME);
+		var missed = flight("AA", LocalDateTime.of(2026, 1, 13, 8, 0), 30, FlightStatus.DELAYED);
+		duringLoad = () -> store.append(List.of(seen, missed), airlines);
+		when(loadedIds.next()).thenReturn(true, false);
+		when(loadedIds.getObject(eq(1), eq(UUID.class))).thenReturn(seen.id());
+
+		store.load();
+
+		assertThat(store.isReady()).isTrue();
+		Map<Airline, FlightAuxStats> stats = store.routeStats("JFK", "LAX", FROM, TO);
+		assertThat(stats.get(american).totalFlights()).isEqualTo(3);
+		assertThat(stats.get(american).avgDelay()).isEqualTo(30.0);
+		assertThat(stats.get(american).onTimePercentage()).isEqualTo(100.0 / 3);
+		// the row without a status is skipped, not fatal to the load
+		assertThat(stats.get(delta).totalFlights()).isEqualTo(1);
+		assertThat(stats.get(delta).cancelRate()).isEqualTo(100.0);
+	}
+
+	@Test
+	void ignoresAppendsWhenDisabled() {
+		props.getRouteHistory().setEnabled(false);
+		store.load();
+
+		store.append(List.of(flight("AA", LocalDateTime.of(2026, 1, 10, 8, 0), 10, FlightStatus.ON_TIME)), airlines);
+
+		assertThat(store.isReady()).isFalse();
+		assertThat(store.routeStats("JFK", "LAX", FROM, TO)).isEmpty();
+	}
+
+	@Test
+	void keepsAppendsInDepartureOrderAndSlicesByRange() {
+		store.load();
+
+		store.append(List.of(
+				flight("AA", LocalDateTime.of(2026, 2, 5, 8, 0), 90, FlightStatus.DELAYED),
+				flight("AA", LocalDateTime.of(2026, 1, 20, 8, 0), 0, FlightStatus.ON_TIME),
+				flight("AA", LocalDateTime.of(2025, 12, 31, 8, 0), 120, FlightStatus.DELAYED)), airlines);
+
+		var stats = store.routeStats("JFK", "LAX", FROM, TO).get(american);
+		assertThat(stats.totalFlights()).isEqualTo(1);
+		assertThat(stats.avgDelay()).isZero();
+		assertThat(store.routeStats("JFK", "LAX", FROM, TO.plusMonths(1)).get(american).totalFlights()).isEqualTo(2);
+	}
+
+	@Test
+	void encodesMoreAirlinesThanFitInAShort() {
+		store.load();
+		List<FlightRow> batch = new ArrayList<>();
+		Map<String, Airline> many = new HashMap<>();
+		for (int i = 0; i < Short.MAX_VALUE + 10; i++) {
+			var code = "X" + i;
+			many.put(code, Airline.builder().code(code).name(code).build());
+			batch.add(flight(code, LocalDateTime.of(2026, 1, 10, 8, 0), i % 100, FlightStatus.ON_TIME));
+		}
+
+		store.append(batch, many);
+
+		Map<String, FlightAuxStats> byCode = store.routeStats("JFK", "LAX", FROM, TO).entrySet().stream()
+				.collect(Collectors.toMap(e -> e.getKey().getCode(), Map.Entry::getValue));
+		assertThat(byCode).hasSize(Short.MAX_VALUE + 10);
+		var last = "X" + (Short.MAX_VALUE + 9);
+		assertThat(byCode.get(last).avgDelay()).isEqualTo((Short.MAX_VALUE + 9) % 100);
+	}
+
+	private static Object[] row(String airline, LocalDateTime departure, int delay, String status) {
+		return new Object[] {"JFK", "LAX", airline, departure, delay, status};
+	}
+
+	private static FlightRow flight(String airline, LocalDateTime departure, int delay, FlightStatus status) {
+		return FlightRow.builder()
+				.id(UUID.randomUUID())
+				.airlineCode(airline)
+				.originCode("JFK")
+				.destinationCode("LAX")
+				.scheduledDeparture(departure)
+				.delayMinutes(delay)
+				.status(status)
+				.build();
+	}
+}
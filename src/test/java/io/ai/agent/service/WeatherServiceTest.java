@@ -0,0 +1,161 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.Airport;
+import io.ai.agent.entity.WeatherData;
+import io.ai.agent.repo.AirportRepository;
+import io.ai.agent.repo.WeatherDataRepository;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class WeatherServiceTest {
+
+	private static final String BASE_URL = "http://weather.test";
+
+	private final WeatherDataRepository weatherDataRepository = mock(WeatherDataRepository.class);
+	private final AirportRepository airportRepository = mock(AirportRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final RestTemplate restTemplate = new RestTemplate();
+	private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+	private final Airport airport = Airport.builder().id(UUID.randomUUID()).code("JFK").name("John F. Kennedy")
+			.latitude(40.64).longitude(-73.78).build();
+	private final LocalDateTime today = LocalDate.now().atStartOfDay();
+
+	private WeatherService weatherService;
+
+	@BeforeEach
+	void setUp() {
+		var props = new ConfigProps();
+		props.getWeather().setBaseUrl(BASE_URL);
+		weatherService = new WeatherService(weatherDataRepository, airportRepository, restTemplate, jdbcTemplate, props);
+		when(airportRepository.findByCode("JFK")).thenReturn(Optional.of(airport));
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1, 1, 1});
+	}
+
+	@Test
+	void storesEveryForecastHourAndServesLaterHoursFromTheCache() {
+		server.expect(ExpectedCount.once(), requestTo(startsWith(BASE_URL + "/v1/forecast")))
+				.andExpect(queryParam("forecast_days", "7"))
+				.andRespond(withSuccess(forecastJson(), MediaType.APPLICATION_JSON));
+
+		WeatherData first = weatherService.getWeatherForecast("JFK", today.plusMinutes(80));
+		WeatherData second = weatherService.getWeatherForecast("JFK", today.plusHours(2));
+
+		server.verify();
+		assertThat(first.getDateTime()).isEqualTo(today.plusHours(1));
+		assertThat(first.getTemperature()).isEqualTo(11.5);
+		assertThat(first.getWindSpeed()).isEqualTo(20.0);
+		assertThat(first.getConditions()).isEqualTo("61");
+		assertThat(first.getPrecipitationProbability()).isEqualTo(40);
+		assertThat(second.getTemperature()).isEqualTo(12.0);
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(eq(weatherInsert()), rows.capture());
+		assertThat(rows.getValue()).hasSize(3);
+		assertThat(rows.getValue().get(0)[1]).isEqualTo(airport.getId());
+		assertThat(rows.getValue().get(2)[2]).isEqualTo(Timestamp.valueOf(today.plusHours(2)));
+		verify(weatherDataRepository, never()).save(any());
+	}
+
+	@Test
+	void servesAFullyStoredForecastWindowWithoutCallingTheApi() {
+		var stored = IntStream.range(0, 7 * 24)
+				.mapToObj(h -> storedPoint(today.plusHours(h)))
+				.toList();
+		when(weatherDataRepository.findByAirportAndTimeRange(eq("JFK"), any(), any())).thenReturn(stored);
+
+		WeatherData weather = weatherService.getWeatherForecast("JFK", today.plusHours(30).plusMinutes(15));
+
+		server.verify();
+		assertThat(weather.getDateTime()).isEqualTo(today.plusHours(30));
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	void buildsTheForecastWindowInTheAirportZone() {
+		// UTC+14 and UTC-12 are never on the same date, so one of them is on a different date than the server
+		var zone = Stream.of("Etc/GMT-14", "Etc/GMT+12")
+				.map(ZoneId::of)
+				.filter(z -> !LocalDate.now(z).equals(LocalDate.now()))
+				.findFirst()
+				.orElseThrow();
+		airport.setTimezone(zone.getId());
+		var airportToday = LocalDate.now(zone).atStartOfDay();
+		var stored = IntStream.range(0, 7 * 24)
+				.mapToObj(h -> storedPoint(airportToday.plusHours(h)))
+				.toList();
+		when(weatherDataRepository.findByAirportAndTimeRange(eq("JFK"), any(), any())).thenAnswer(invocation -> {
+			LocalDateTime from = invocation.getArgument(1);
+			LocalDateTime to = invocation.getArgument(2);
+			return stored.stream().filter(w -> !w.getDateTime().isBefore(from) && !w.getDateTime().isAfter(to)).toList();
+		});
+
+		WeatherData weather = weatherService.getWeatherForecast("JFK", airportToday.plusHours(30));
+
+		server.verify();
+		assertThat(weather.getDateTime()).isEqualTo(airportToday.plusHours(30));
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	private String weatherInsert() {
+		return """
+				INSERT INTO weather_data (id, airport_id, date_time, temperature, wind_speed, visibility, conditions, severe_weather,
+					precipitation_probability)
+				VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+				ON CONFLICT (airport_id, date_time) DO NOTHING""";
+	}
+
+	private WeatherData storedPoint(LocalDateTime dateTime) {
+		return WeatherData.builder().airport(airport).dateTime(dateTime).temperature(10.0).build();
+	}
+
+	private String forecastJson() {
+		return """
+				{
+				  "latitude": 40.64, "longitude": -73.78, "timezone": "America/New_York",
+				  "current": {"time": "%1$sT00:00", "interval": 900, "temperature_2m": 10.0, "wind_speed_10m": 15.0,
+				    "weather_code": 3, "visibility": 24000.0},
+				  "hourly": {
+				    "time": ["%1$sT00:00", "%1$sT01:00", "%1$sT02:00"],
+				    "temperature_2m": [10.0, 11.5, 12.0],
+				    "relative_humidity_2m": [70, 72, 75],
+				    "wind_speed_10m": [15.0, 20.0, 22.0],
+				    "weather_code": [3, 61, 63],
+				    "visibility": [24000.0, 12000.0, 8000.0],
+				    "precipitation_probability": [10, 40, 60]
+				  }
+				}""".formatted(today.toLocalDate());
+	}
+}
@@ -0,0 +1,101 @@
+package io.ai.agent.service;
+
+import io.ai.agent.config.ConfigProps;
+import io.ai.agent.entity.WeatherData;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeatherSeverityClassifierTest {
+
+	private final WeatherSeverityClassifier classifier = new WeatherSeverityClassifier(new ConfigProps());
+
+	@Test
+	void calmWeatherHasNoAlerts() {
+		var analysis = classifier.classify(Map.of("JFK", weather("0", 10.0, 20000.0, 5)));
+
+		assertThat(analysis.severe()).isFalse();
+		assertThat(analysis.alerts()).isEmpty();
+		assertThat(analysis.summary()).startsWith("No significant weather.")
+				.contains("JFK: clear sky (WMO 0), wind 10.0 km/h, visibility 20000.0 m, precipitation 5%.");
+	}
+
+	@Test
+	void cautionLevelRulesOnlyAddAlerts() {
+		var analysis = classifier.classify(Map.of("JFK", weather("61", 40.0, 3000.0, 50)));
+
+		assertThat(analysis.severe()).isFalse();
+		assertThat(analysis.alerts()).containsExactly("JFK: rain", "JFK: strong winds 40.0 km/h", "JFK: reduced visibility 3000.0 m");
+		assertThat(analysis.summary()).startsWith("Minor weather impacts.");
+	}
+
+	@Test
+	void anySevereRuleMakesTheAnalysisSevere() {
+		assertThat(classifier.classify(Map.of("JFK", weather("95", 10.0, 20000.0, 0))).alerts())
+				.containsExactly("JFK: thunderstorm");
+		assertThat(classifier.classify(Map.of("JFK", weather("0", 60.0, 20000.0, 0))).alerts())
+				.containsExactly("JFK: high winds 60.0 km/h");
+		assertThat(classifier.classify(Map.of("JFK", weather("0", 10.0, 500.0, 0))).alerts())
+				.containsExactly("JFK: very low visibility 500.0 m");
+		assertThat(classifier.classify(Map.of("JFK", weather("0", 10.0, 20000.0, 90))).alerts())
+				.containsExactly("JFK: precipitation likely (90%)");
+
+		var flagged = weather("0", 10.0, 20000.0, 0);
+		flagged.setSevereWeather(true);
+		var analysis = classifier.classify(Map.of("JFK", flagged));
+		assertThat(analysis.severe()).isTrue();
+		assertThat(analysis.alerts()).containsExactly("JFK: severe weather reported");
+		assertThat(analysis.summary()).startsWith("Severe weather expected.");
+	}
+
+	@Test
+	void thresholdsComeFromConfiguration() {
+		var props = new ConfigProps();
+		props.getWeather().setSevereWindSpeed(30.0);
+		props.getWeather().getSevereCodes().add(61);
+
+		var analysis = new WeatherSeverityClassifier(props).classify(Map.of("JFK", weather("61", 35.0, 20000.0, 0)));
+
+		assertThat(analysis.severe()).isTrue();
+		assertThat(analysis.alerts()).containsExactly("JFK: rain", "JFK: high winds 35.0 km/h");
+	}
+
+	@Test
+	void missingObservationsAndUnknownFieldsAreReportedAsUnknown() {
+		Map<String, WeatherData> weather = new LinkedHashMap<>();
+		weather.put("JFK", null);
+		weather.put("LAX", WeatherData.builder().conditions("fog").build());
+
+		var analysis = classifier.classify(weather);
+
+		assertThat(analysis.severe()).isFalse();
+		assertThat(analysis.alerts()).isEmpty();
+		assertThat(analysis.summary()).isEqualTo("No significant weather. JFK: no weather data. "
+				+ "LAX: conditions unknown, wind unknown km/h, visibility unknown m, precipitation unknown%.");
+	}
+
+	@Test
+	void alertsCoverEveryAirport() {
+		Map<String, WeatherData> weather = new HashMap<>();
+		weather.put("JFK", weather("45", 10.0, 20000.0, 0));
+		weather.put("LAX", weather("75", 10.0, 20000.0, 0));
+
+		var analysis = classifier.classify(weather);
+
+		assertThat(analysis.severe()).isTrue();
+		assertThat(analysis.alerts()).containsExactlyInAnyOrder("JFK: fog", "LAX: heavy snow");
+	}
+
+	private static WeatherData weather(String code, Double windSpeed, Double visibility, Integer precipitation) {
+		return WeatherData.builder()
+				.conditions(code)
+				.windSpeed(windSpeed)
+				.visibility(visibility)
+				.precipitationProbability(precipitation)
+				.severeWeather(false)
+				.build();
+	}
+}